@@ -25,6 +25,25 @@ public interface AgentCommunication {
      */
     void broadcastMessage(String message);
 
+    /**
+     * Create a mail from this AgentImp to the specified receiver with an envelope holding the given payload.
+     * The payload is delivered as it is, without being turned into a String.
+     *
+     * @param receiver  The agent representation of the agent to write the message to.
+     * @param type      The type of the payload, e.g. the key of a memory fragment.
+     * @param version   The version of the payload, e.g. that of a memory fragment.
+     * @param payload   The payload to send.
+     */
+    void sendMessage(AgentRep receiver, String type, long version, byte[] payload);
+
+    /**
+     * Broadcast a mail with an envelope holding the given payload to all other agents.
+     * @param type     The type of the payload.
+     * @param version  The version of the payload.
+     * @param payload  The payload to send.
+     */
+    void broadcastMessage(String type, long version, byte[] payload);
+
     /**
      * Get the number of messages in the incoming message queue.
      */
@@ -3,7 +3,6 @@ package agent;
 import java.awt.Color;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -19,6 +18,7 @@ import environment.ActiveImp;
 import environment.ActiveItemID;
 import environment.CellPerception;
 import environment.EnergyValues;
+import environment.Envelope;
 import environment.Mail;
 import environment.MailBuffer;
 import environment.Perception;
@@ -51,6 +51,7 @@ import util.event.AgentActionEvent;
 import util.event.AgentHandledEvent;
 import util.event.BehaviorChangeEvent;
 import util.event.EnergyUpdateEvent;
+import util.event.MemoryUsageEvent;
 
 /**
  * This class represents the implementation of an Agent in the MAS. It
@@ -73,12 +74,17 @@ abstract public class AgentImp extends ActiveImp implements AgentState, AgentCom
 
 
     /**
-     * The memory of an agent has the form of a key mapped to a memory fragment (represented as String)
+     * The memory of an agent has the form of a key mapped to a memory fragment (represented as String or as live object)
      * e.g.  "target" -> "3, 4"
      */
-    private Map<String, String> memory;
+    private AgentMemory memory;
     private static final int MAX_MEMORY_FRAGMENTS = 10;
 
+    /**
+     * The number of cycles between two reports of the size of the memory of this agent, or 0 for no reports
+     */
+    private int memoryReportInterval;
+
     private final Logger logger = Logger.getLogger(AgentImp.class.getName());
 
 
@@ -99,7 +105,7 @@ abstract public class AgentImp extends ActiveImp implements AgentState, AgentCom
         this.messages = new ArrayList<>();
         //synchronize=false;
         this.outgoingMails = new MailBuffer();
-        memory = new HashMap<>();
+        memory = new AgentMemory(this::getName, MAX_MEMORY_FRAGMENTS);
 
 
         this.committedAction = false;
@@ -149,6 +155,46 @@ abstract public class AgentImp extends ActiveImp implements AgentState, AgentCom
                 .forEach(a -> this.sendMessage(a.getName(), message));
     }
 
+    /**
+     * Create a mail from this AgentImp to <receiver> with an envelope holding <payload> and add the resulting mail
+     * to the buffer of outgoing mails.
+     * @param receiver The representation of the agent to write the message to
+     * @param type The type of the payload
+     * @param version The version of the payload
+     * @param payload The payload to send
+     */
+    @Override
+    public final void sendMessage(AgentRep receiver, String type, long version, byte[] payload) {
+        this.sendMessage(receiver.getName(), new Envelope(type, getName(), version, payload));
+    }
+
+    /**
+     * Create a mail from this AgentImp to <to> with envelope <envelope> and add the resulting mail to the buffer
+     * of outgoing mails.
+     * @param to The name of the agent to write the message to
+     * @param envelope The envelope to send
+     */
+    private void sendMessage(String to, Envelope envelope) {
+        this.logger.fine(String.format("agentImp %d buffers a mail", getActiveItemID().getID()));
+
+        Mail mail = new Mail(getName(), to, envelope);
+        this.getMailBuffer().addMail(mail);
+    }
+
+    /**
+     * Broadcast a mail with an envelope holding <payload> to all other agents. All of them are sent the same envelope.
+     * @param type The type of the payload
+     * @param version The version of the payload
+     * @param payload The payload to send
+     */
+    @Override
+    public void broadcastMessage(String type, long version, byte[] payload) {
+        Envelope envelope = new Envelope(type, getName(), version, payload);
+        this.getEnvironment().getAgentWorld().getAgents().stream()
+                .filter(a -> a != this.getAgent())
+                .forEach(a -> this.sendMessage(a.getName(), envelope));
+    }
+
 
     /**
      * Gets message at the given index from the message queue.
@@ -571,21 +617,9 @@ abstract public class AgentImp extends ActiveImp implements AgentState, AgentCom
      */
     @Override
     public boolean seesDestination(Color color) {
-        int vw = getPerception().getWidth();
-        int vh = getPerception().getHeight();
-        for (int i = 0; i < vw; i++) {
-            for (int j = 0; j < vh; j++) {
-                var per = this.getPerception().getCellAt(i, j);
-                if (per != null) {
-                    DestinationRep destRep = per.getRepOfType(DestinationRep.class);
-                    if (destRep != null && Optional.ofNullable(color).map(c -> destRep.getColor().equals(c)).orElse(true)) {
-                        return true;
-                    }
-                }
-
-            }
-        }
-        return false;
+        return this.getPerception()
+            .getNearest(DestinationRep.class, destRep -> Optional.ofNullable(color).map(c -> destRep.getColor().equals(c)).orElse(true))
+            .isPresent();
     }
 
 
@@ -609,20 +643,9 @@ abstract public class AgentImp extends ActiveImp implements AgentState, AgentCom
      */
     @Override
     public boolean seesPacket(Color color) {
-        int vw = getPerception().getWidth();
-        int vh = getPerception().getHeight();
-        for (int i = 0; i < vw; i++) {
-            for (int j = 0; j < vh; j++) {
-                var per = this.getPerception().getCellAt(i, j);
-                if (per != null) {
-                    PacketRep p = per.getRepOfType(PacketRep.class);
-                    if (p != null && Optional.ofNullable(color).map(c -> p.getColor().equals(c)).orElse(true)) {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
+        return this.getPerception()
+            .getNearest(PacketRep.class, p -> Optional.ofNullable(color).map(c -> p.getColor().equals(c)).orElse(true))
+            .isPresent();
     }
 
 
@@ -637,9 +660,7 @@ abstract public class AgentImp extends ActiveImp implements AgentState, AgentCom
      */
     @Override
     public void addMemoryFragment(String key, String data) {
-        if (getNbMemoryFragments() < getMaxNbMemoryFragments()) {
-            memory.put(key, data);
-        }
+        memory.putEncoded(key, data);
     }
 
     /**
@@ -657,7 +678,7 @@ abstract public class AgentImp extends ActiveImp implements AgentState, AgentCom
      */
     @Override
     public String getMemoryFragment(String key) {
-        return this.memory.get(key);
+        return this.memory.getEncoded(key);
     }
 
     /**
@@ -665,7 +686,7 @@ abstract public class AgentImp extends ActiveImp implements AgentState, AgentCom
      */
     @Override
     public Set<String> getMemoryFragmentKeys() {
-        return this.memory.keySet();
+        return this.memory.names();
     }
 
     /**
@@ -684,6 +705,102 @@ abstract public class AgentImp extends ActiveImp implements AgentState, AgentCom
         return AgentImp.MAX_MEMORY_FRAGMENTS;
     }
 
+    /**
+     * Get the size of the memory of this agent: the number of bytes of the String forms of its memory fragments.
+     */
+    public long getMemoryBytes() {
+        return this.memory.getTotalBytes();
+    }
+
+    /**
+     * Get the size in bytes of every memory fragment of this agent, by key.
+     */
+    public Map<String, Integer> getMemoryUsage() {
+        return this.memory.getUsage();
+    }
+
+    public long getMemoryQuota() {
+        return this.memory.getQuota();
+    }
+
+    /**
+     * Set the number of bytes the memory fragments of this agent may take together. Writes that would exceed
+     * the quota are refused, and a fragment that grows beyond it in place is dropped.
+     * @param quota  The quota in bytes, or 0 for no quota (the default).
+     */
+    public void setMemoryQuota(long quota) {
+        this.memory.setQuota(quota);
+    }
+
+    public int getMemoryReportInterval() {
+        return this.memoryReportInterval;
+    }
+
+    /**
+     * Set how often this agent reports the size of its memory, with a MemoryUsageEvent after its action.
+     * @param interval  The number of cycles between two reports, or 0 for no reports (the default).
+     */
+    public void setMemoryReportInterval(int interval) {
+        this.memoryReportInterval = Math.max(0, interval);
+    }
+
+    /**
+     * Get the memory fragment with the name of the given key from this agent's memory, as a live object.
+     * @param key  The key of the memory fragment to retrieve.
+     */
+    @Override
+    public <T> T getMemory(MemoryKey<T> key) {
+        return this.memory.get(key);
+    }
+
+    /**
+     * Stores an object as the memory fragment with the name of the given key (if its memory is not full).
+     * @param key   The key associated with the memory fragment
+     * @param value The memory fragment itself
+     */
+    @Override
+    public <T> void putMemory(MemoryKey<T> key, T value) {
+        this.memory.put(key, value);
+    }
+
+    /**
+     * Get a handle on the memory fragment with the name of the given key in this agent's memory.
+     * @param key  The key of the memory fragment.
+     */
+    @Override
+    public <T> MemoryFragment<T> getMemoryHandle(MemoryKey<T> key) {
+        return this.memory.handle(key);
+    }
+
+    /**
+     * Applies a delta to the memory fragment with the name of the given patchable key (storing it first if there is none).
+     * @param key   The patchable key associated with the memory fragment
+     * @param delta The delta
+     */
+    @Override
+    public <T> void patchMemory(MemoryKey<T> key, T delta) {
+        this.memory.patch(key, delta);
+    }
+
+    /**
+     * Get what changed in a memory fragment with given key since it was last retrieved for the given reader.
+     * @param key     The key of the memory fragment to retrieve.
+     * @param reader  The name of the reader.
+     */
+    @Override
+    public String getMemoryFragmentChanges(String key, String reader) {
+        return this.memory.getEncodedChanges(key, reader);
+    }
+
+    /**
+     * Get the version of a memory fragment with given key.
+     * @param key  The key of the memory fragment.
+     */
+    @Override
+    public long getMemoryFragmentVersion(String key) {
+        return this.memory.getVersion(key);
+    }
+
 
 
 
@@ -708,7 +825,7 @@ abstract public class AgentImp extends ActiveImp implements AgentState, AgentCom
 
     @Subscribe
     private void handleAgentActionEvent(AgentActionEvent event) {
-        if (event.getAgent() == getAgent() && EnergyValues.ENERGY_ENABLED) {
+        if (event.getAgent() == getAgent() && getEnvironment().isEnergyEnabled()) {
             var agent = this.getAgent();
 
             int energyCost = EnergyValues.calculateEnergyCost(event);
@@ -907,7 +1024,22 @@ abstract public class AgentImp extends ActiveImp implements AgentState, AgentCom
             AgentHandledEvent event = new AgentHandledEvent(this);
             event.setAgent(this);
             this.eventBus.post(event);
+            reportMemoryUsage();
+        }
+    }
+
+    /**
+     * Report the size of the memory of this agent, if a report is due this cycle.
+     */
+    private void reportMemoryUsage() {
+        if (memoryReportInterval == 0 || getEnvironment().getTime() % memoryReportInterval != 0) {
+            return;
         }
+        var memoryEvent = new MemoryUsageEvent(this);
+        memoryEvent.setAgent(getAgent());
+        memoryEvent.setUsage(this.memory.getUsage());
+        memoryEvent.setQuota(this.memory.getQuota());
+        this.eventBus.post(memoryEvent);
     }
 
     protected boolean environmentPermissionNeededForNextPhase() {
@@ -0,0 +1,516 @@
+package agent;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import util.assignments.jackson.JacksonCodecs;
+
+/**
+ * The memory of an agent: a bounded number of memory fragments, each stored under a name.
+ *
+ * A fragment is either a live object, stored through a MemoryKey, or a JSON String, stored by name.
+ * Live objects are only serialized when the String form of their fragment is asked for, and
+ * Strings are only deserialized when their fragment is asked for through a MemoryKey. Either
+ * form is kept once it is made, until the fragment is next written, so asking again costs nothing.
+ * A live object that is asked for through a key of another type is converted (once) to that type.
+ * Every write gives the fragment a new version, higher than any version handed out before.
+ *
+ * A fragment that is patched through a patchable MemoryKey also gets a log of the deltas that changed
+ * it, each with the version it brought about. The live object is the base, which already holds every
+ * delta; the log is kept to hand out what changed since a version instead of the whole fragment. Once
+ * the log is MAX_DELTAS long, its older half is compacted into the base: readers behind the base
+ * version are given the whole fragment again. Storing the same object again does not clear the log.
+ *
+ * The size of a fragment is the number of bytes of its String form in UTF-8, measured (once per write)
+ * when it is asked for. The memory can be given a quota on the total size of its fragments, of which a
+ * running total is then kept. Every fragment that is stored is then measured, and a write that would bring
+ * the memory over its quota is refused; a fragment that has grown over it in place (the same object stored
+ * again) is dropped instead. A patch does not measure the whole fragment again: the size of the change is
+ * added to that of the fragment, as an estimate. Only when the total is estimated to be over the quota is
+ * the fragment measured, and dropped if it is indeed over it. Sizes asked for (e.g. for a report) are exact.
+ */
+final class AgentMemory {
+
+    // The number of deltas a log holds before it is compacted
+    static final int MAX_DELTAS = 32;
+
+    private final Map<String, Fragment> fragments;
+    private final int maxFragments;
+    // The name of the agent whose memory this is, for the log
+    private final Supplier<String> owner;
+    // The number of bytes all fragments may take together, or 0 if there is no quota
+    private long quota;
+    // The total of the sizes of all fragments, exact or estimated, as far as they are known
+    private long totalBytes;
+    // The number of writes to this memory so far, the last version handed out
+    private long writes;
+
+
+    private final Logger logger = Logger.getLogger(AgentMemory.class.getName());
+
+
+    /**
+     * A memory fragment: its live object, its String form and the size of that form, as far as they
+     * were made since the fragment was last written, and its version. The size is -1 if it is not known,
+     * and may be an estimate after a patch.
+     */
+    private static final class Fragment {
+        private Object value;
+        private String data;
+        private int bytes = -1;
+        private boolean estimated;
+        private long version;
+        private DeltaLog<?> log;
+    }
+
+    /**
+     * A delta of a memory fragment, with the version of the fragment it brought about.
+     */
+    private record Delta<T>(long version, T delta) {}
+
+    /**
+     * The log of the deltas of a patched memory fragment.
+     */
+    private static final class DeltaLog<T> {
+        private final MemoryKey<T> key;
+        private final Deque<Delta<T>> deltas = new ArrayDeque<>();
+        // The oldest version the deltas in the log lead up from
+        private long baseVersion;
+        // Per reader, the version of the fragment it was last given
+        private final Map<String, Long> cursors = new HashMap<>();
+
+        private DeltaLog(MemoryKey<T> key, long baseVersion) {
+            this.key = key;
+            this.baseVersion = baseVersion;
+        }
+
+        private void append(long version, T delta) {
+            deltas.addLast(new Delta<>(version, delta));
+            if (deltas.size() >= MAX_DELTAS) {
+                while (deltas.size() > MAX_DELTAS / 2) {
+                    baseVersion = deltas.removeFirst().version();
+                }
+            }
+        }
+
+        /**
+         * Drops all deltas, because the fragment was replaced as a whole.
+         */
+        private void rebase(long version) {
+            deltas.clear();
+            baseVersion = version;
+        }
+
+        /**
+         * Returns all deltas after the given version folded into one, or null if there are none.
+         */
+        private T since(long from) {
+            if (deltas.isEmpty() || deltas.getLast().version() <= from) {
+                return null;
+            }
+            T folded = key.newEmpty();
+            for (Delta<T> delta : deltas) {
+                if (delta.version() > from) {
+                    key.patch(folded, delta.delta());
+                }
+            }
+            return folded;
+        }
+    }
+
+    /**
+     * A handle on the fragment stored under the name of a key, whichever object is stored there.
+     */
+    private final class Handle<T> implements MemoryFragment<T> {
+        private final MemoryKey<T> key;
+
+        private Handle(MemoryKey<T> key) {
+            this.key = key;
+        }
+
+        @Override
+        public MemoryKey<T> getKey() {
+            return key;
+        }
+
+        @Override
+        public T get() {
+            return AgentMemory.this.get(key);
+        }
+
+        @Override
+        public long getVersion() {
+            return AgentMemory.this.getVersion(key.getName());
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s (version %d)", key, getVersion());
+        }
+    }
+
+
+    AgentMemory(Supplier<String> owner, int maxFragments) {
+        this.fragments = new HashMap<>();
+        this.maxFragments = maxFragments;
+        this.owner = owner;
+    }
+
+    /**
+     * Returns the fragment stored under the name of the given key, or null if there is none
+     * or if it cannot be read as the type of the key.
+     */
+    <T> T get(MemoryKey<T> key) {
+        Fragment fragment = fragments.get(key.getName());
+        if (fragment == null || fragment.value == null && fragment.data == null) {
+            return null;
+        }
+        if (!key.getType().isInstance(fragment.value)) {
+            // Read once as the type of the key, like a round trip through its String form would
+            Object value = convert(key, fragment);
+            if (value == null) {
+                return null;
+            }
+            fragment.value = value;
+        }
+        @SuppressWarnings("unchecked")
+        T value = (T) fragment.value;
+        return value;
+    }
+
+    /**
+     * Returns a handle on the fragment stored under the name of the given key.
+     */
+    <T> MemoryFragment<T> handle(MemoryKey<T> key) {
+        return new Handle<>(key);
+    }
+
+    /**
+     * Returns the version of the fragment stored under the given name, or 0 if there is none.
+     */
+    long getVersion(String name) {
+        Fragment fragment = fragments.get(name);
+        return fragment == null ? 0 : fragment.version;
+    }
+
+    /**
+     * Stores the given object under the name of the given key, if that name is already in use or
+     * if there is room for another fragment.
+     */
+    <T> void put(MemoryKey<T> key, T value) {
+        String data = null;
+        if (quota > 0) {
+            data = encode(key.getName(), value);
+            if (!fits(key.getName(), value, data)) {
+                return;
+            }
+        }
+        Fragment fragment = store(key.getName());
+        if (fragment == null) {
+            return;
+        }
+        if (fragment.log != null && fragment.value != value) {
+            fragment.log.rebase(fragment.version);
+        }
+        fragment.value = value;
+        fragment.data = data;
+        if (data != null) {
+            setBytes(fragment, utf8Length(data), false);
+        }
+    }
+
+    /**
+     * Applies the given delta to the fragment stored under the name of the given (patchable) key and logs
+     * what it changed. An empty fragment is stored first if there is none and there is room for it.
+     */
+    <T> void patch(MemoryKey<T> key, T delta) {
+        T value = get(key);
+        if (value == null) {
+            put(key, key.newEmpty());
+            value = get(key);
+            if (value == null) {
+                return;
+            }
+        }
+        Fragment fragment = fragments.get(key.getName());
+        if (fragment.log == null) {
+            fragment.log = new DeltaLog<>(key, fragment.version);
+        }
+        T change = key.patch(value, delta);
+        if (change != null) {
+            fragment.version = ++writes;
+            fragment.data = null;
+            @SuppressWarnings("unchecked")
+            DeltaLog<T> log = (DeltaLog<T>) fragment.log;
+            log.append(fragment.version, change);
+
+            if (quota <= 0) {
+                setBytes(fragment, -1, false);
+                return;
+            }
+            if (fragment.bytes < 0) {
+                getBytes(key.getName());
+            } else {
+                // Estimate the new size from the change, and only measure the fragments if that is over the quota
+                setBytes(fragment, fragment.bytes + utf8Length(encode(key.getName(), change)), true);
+                if (totalBytes > quota) {
+                    getTotalBytes();
+                }
+            }
+            if (totalBytes > quota) {
+                this.logger.severe(String.format("Memory of agent %s is over its quota of %d bytes: dropped fragment %s (%d bytes)",
+                    owner.get(), quota, key.getName(), fragment.bytes));
+                remove(key.getName());
+            }
+        }
+    }
+
+    /**
+     * Returns the String form of what changed in the fragment stored under the given name since it was
+     * last given to the given reader: the whole fragment the first time, or when the fragment has no delta
+     * log or the log no longer reaches back that far, or null if nothing changed (or there is no fragment).
+     */
+    String getEncodedChanges(String name, String reader) {
+        Fragment fragment = fragments.get(name);
+        if (fragment == null || fragment.log == null) {
+            return getEncoded(name);
+        }
+        Long cursor = fragment.log.cursors.put(reader, fragment.version);
+        if (cursor == null || cursor < fragment.log.baseVersion) {
+            return getEncoded(name);
+        }
+        Object changes = fragment.log.since(cursor);
+        if (changes == null) {
+            return null;
+        }
+        try {
+            return JacksonCodecs.write(changes);
+        } catch (IOException e) {
+            this.logger.severe(String.format("Could not serialize changes of memory fragment %s: %s", name, e.getMessage()));
+            return null;
+        }
+    }
+
+    /**
+     * Returns the String form of the fragment stored under the given name, or null if there is none.
+     */
+    String getEncoded(String name) {
+        Fragment fragment = fragments.get(name);
+        if (fragment == null || fragment.value == null && fragment.data == null) {
+            return null;
+        }
+        if (fragment.data == null) {
+            fragment.data = encode(name, fragment.value);
+        }
+        return fragment.data;
+    }
+
+    /**
+     * Stores the given String form of a fragment under the given name, if that name is already in use
+     * or if there is room for another fragment.
+     */
+    void putEncoded(String name, String data) {
+        if (quota > 0 && !fits(name, data, data)) {
+            return;
+        }
+        Fragment fragment = store(name);
+        if (fragment == null) {
+            return;
+        }
+        if (fragment.log != null) {
+            fragment.log.rebase(fragment.version);
+        }
+        fragment.value = null;
+        fragment.data = data;
+        if (quota > 0) {
+            setBytes(fragment, utf8Length(data), false);
+        }
+    }
+
+    void remove(String name) {
+        Fragment fragment = fragments.remove(name);
+        if (fragment != null) {
+            setBytes(fragment, -1, false);
+        }
+    }
+
+    /**
+     * Returns the (exact) size in bytes of the fragment stored under the given name, or 0 if there is none.
+     */
+    int getBytes(String name) {
+        Fragment fragment = fragments.get(name);
+        if (fragment == null) {
+            return 0;
+        }
+        if (fragment.bytes < 0 || fragment.estimated) {
+            setBytes(fragment, utf8Length(getEncoded(name)), false);
+        }
+        return fragment.bytes;
+    }
+
+    /**
+     * Returns the (exact) total size in bytes of all fragments.
+     */
+    long getTotalBytes() {
+        long total = 0;
+        for (String name : fragments.keySet()) {
+            total += getBytes(name);
+        }
+        return total;
+    }
+
+    /**
+     * Returns the size in bytes of every fragment, by name.
+     */
+    Map<String, Integer> getUsage() {
+        Map<String, Integer> usage = new TreeMap<>();
+        for (String name : fragments.keySet()) {
+            usage.put(name, getBytes(name));
+        }
+        return usage;
+    }
+
+    long getQuota() {
+        return quota;
+    }
+
+    /**
+     * Sets the number of bytes all fragments may take together, 0 for no quota.
+     */
+    void setQuota(long quota) {
+        this.quota = Math.max(0, quota);
+        if (this.quota > 0) {
+            // Start the running total from the sizes of all fragments
+            getTotalBytes();
+        }
+    }
+
+    Set<String> names() {
+        return fragments.keySet();
+    }
+
+    int size() {
+        return fragments.size();
+    }
+
+    int getMaxSize() {
+        return maxFragments;
+    }
+
+    void clear() {
+        fragments.clear();
+        totalBytes = 0;
+    }
+
+
+    /**
+     * Returns the fragment stored under the given name with a new version and without its memoized forms,
+     * or null if the name is not in use and there is no room for another fragment.
+     */
+    private Fragment store(String name) {
+        Fragment fragment = fragments.get(name);
+        if (fragment == null) {
+            if (fragments.size() >= maxFragments) {
+                return null;
+            }
+            fragment = new Fragment();
+            fragments.put(name, fragment);
+        }
+        fragment.version = ++writes;
+        fragment.data = null;
+        setBytes(fragment, -1, false);
+        return fragment;
+    }
+
+    /**
+     * Sets the size of the given fragment (-1 if it is not known) and updates the running total.
+     */
+    private void setBytes(Fragment fragment, int bytes, boolean estimated) {
+        totalBytes += Math.max(bytes, 0) - Math.max(fragment.bytes, 0);
+        fragment.bytes = bytes;
+        fragment.estimated = estimated;
+    }
+
+    /**
+     * Returns whether the memory stays within its quota if the fragment under the given name is replaced
+     * by the given value with the given String form. If it does not, the write is refused, and a fragment
+     * that already holds the value (and so has grown in place) is dropped.
+     */
+    private boolean fits(String name, Object value, String data) {
+        int bytes = utf8Length(data);
+        Fragment stored = fragments.get(name);
+        if (totalBytes - (stored == null ? 0 : Math.max(stored.bytes, 0)) + bytes <= quota) {
+            return true;
+        }
+        // Estimated sizes may be too high, measure them before refusing
+        if (getTotalBytes() - getBytes(name) + bytes <= quota) {
+            return true;
+        }
+        Fragment fragment = fragments.get(name);
+        boolean grown = fragment != null && fragment.value == value && value != null;
+        this.logger.severe(String.format("Memory of agent %s is over its quota of %d bytes: %s fragment %s (%d bytes)",
+            owner.get(), quota, grown ? "dropped" : "did not store", name, bytes));
+        if (grown) {
+            remove(name);
+        }
+        return false;
+    }
+
+    private String encode(String name, Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return JacksonCodecs.write(value);
+        } catch (IOException e) {
+            this.logger.severe(String.format("Could not serialize memory fragment %s: %s", name, e.getMessage()));
+            return null;
+        }
+    }
+
+    /**
+     * Returns the number of bytes of the given String in UTF-8, or 0 for null.
+     */
+    private static int utf8Length(String data) {
+        if (data == null) {
+            return 0;
+        }
+        int length = 0;
+        for (int i = 0; i < data.length(); i++) {
+            char c = data.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < data.length() && Character.isLowSurrogate(data.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private Object convert(MemoryKey<?> key, Fragment fragment) {
+        ObjectReader reader = key.getElementType() == null
+            ? JacksonCodecs.readerFor(key.getType())
+            : JacksonCodecs.listReaderFor(key.getElementType());
+        try {
+            String data = fragment.data != null ? fragment.data : JacksonCodecs.write(fragment.value);
+            return reader.readValue(data);
+        } catch (IOException e) {
+            this.logger.severe(String.format("Could not read memory fragment %s: %s", key, e.getMessage()));
+            return null;
+        }
+    }
+}
@@ -143,6 +143,60 @@ public interface AgentState {
      */
     int getMaxNbMemoryFragments();
 
+    /**
+     * Get the memory fragment with the name of the given key from this agent's memory, as a live object.
+     * Changes to the returned object change the memory fragment itself; store it again afterwards
+     * so that its String form and version follow.
+     *
+     * @param key  The key of the memory fragment to retrieve.
+     * @return The memory fragment, or null if there is none (or if it is not of the type of the key).
+     */
+    <T> T getMemory(MemoryKey<T> key);
+
+    /**
+     * Stores an object as the memory fragment with the name of the given key (if its memory is not full).
+     * The object itself is kept, it is only serialized when its fragment is retrieved as a String.
+     *
+     * @param key   The key associated with the memory fragment
+     * @param value The memory fragment itself
+     */
+    <T> void putMemory(MemoryKey<T> key, T value);
+
+    /**
+     * Get a handle on the memory fragment with the name of the given key in this agent's memory.
+     * The handle reads the fragment as it is at the time, deserializing it only once per write.
+     *
+     * @param key  The key of the memory fragment.
+     */
+    <T> MemoryFragment<T> getMemoryHandle(MemoryKey<T> key);
+
+    /**
+     * Applies a delta to the memory fragment with the name of the given patchable key, which is first
+     * stored empty if there is none (and its memory is not full). What the delta changed is logged.
+     *
+     * @param key   The patchable key associated with the memory fragment
+     * @param delta The delta, an object of the type of the fragment holding what changed
+     */
+    <T> void patchMemory(MemoryKey<T> key, T delta);
+
+    /**
+     * Get what changed in a memory fragment with given key since it was last retrieved for the given reader.
+     * This is the whole memory fragment the first time, and always for fragments that are not patched.
+     *
+     * @param key     The key of the memory fragment to retrieve.
+     * @param reader  The name of the reader, e.g. the agent the fragment is sent to.
+     * @return The changes as a String, or null if nothing changed (or there is no such fragment).
+     */
+    String getMemoryFragmentChanges(String key, String reader);
+
+    /**
+     * Get the version of a memory fragment with given key, which is higher after every write to it.
+     *
+     * @param key  The key of the memory fragment.
+     * @return The version, or 0 if there is no such fragment.
+     */
+    long getMemoryFragmentVersion(String key);
+
     /**
      * Set the behavior state of this agent. This method should, generally speaking, not be used by developers.
      * @param state The behavior state to switch to.
@@ -0,0 +1,29 @@
+package agent;
+
+/**
+ * A handle on the memory fragment of an agent with the name of a MemoryKey.
+ *
+ * The fragment is only deserialized the first time it is read, and the object is kept until the
+ * fragment is next written, so reading it again through the handle (or through the memory) costs
+ * nothing. Every write gives the fragment a higher version, which tells whether it changed since
+ * it was last read.
+ *
+ * @param <T> The type of the memory fragment
+ */
+public interface MemoryFragment<T> {
+
+    /**
+     * Returns the key of the memory fragment.
+     */
+    MemoryKey<T> getKey();
+
+    /**
+     * Returns the memory fragment as a live object, or null if there is none (or if it is not of the type of the key).
+     */
+    T get();
+
+    /**
+     * Returns the version of the memory fragment, or 0 if there is none.
+     */
+    long getVersion();
+}
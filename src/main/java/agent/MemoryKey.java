@@ -0,0 +1,125 @@
+package agent;
+
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * A typed key of a memory fragment of an agent. Fragments stored under a typed key are kept as
+ * live objects: they are only serialized when their String form is asked for, e.g. to send them
+ * in a message.
+ *
+ * Two keys with the same name refer to the same memory fragment, whatever their type.
+ *
+ * A fragment stored through a patchable key can also be changed by small deltas: objects of the same
+ * type holding only what changed. The memory keeps a log of these deltas, so what changed since a
+ * version can be sent instead of the whole fragment.
+ *
+ * @param <T> The type of the memory fragment
+ */
+public final class MemoryKey<T> {
+
+    private final String name;
+    private final Class<?> type;
+    private final Class<?> elementType;
+    private final Supplier<T> empty;
+    private final BinaryOperator<T> patch;
+
+
+    private MemoryKey(String name, Class<?> type, Class<?> elementType, Supplier<T> empty, BinaryOperator<T> patch) {
+        this.name = Objects.requireNonNull(name);
+        this.type = Objects.requireNonNull(type);
+        this.elementType = elementType;
+        this.empty = empty;
+        this.patch = patch;
+    }
+
+    /**
+     * Returns a key for a memory fragment holding an object of the given class.
+     *
+     * @param name The name of the memory fragment
+     * @param type The class of the memory fragment
+     */
+    public static <T> MemoryKey<T> of(String name, Class<T> type) {
+        return new MemoryKey<>(name, type, null, null, null);
+    }
+
+    /**
+     * Returns a key for a memory fragment holding an object of the given class that can be patched with deltas.
+     *
+     * @param name  The name of the memory fragment
+     * @param type  The class of the memory fragment
+     * @param empty Makes an empty object of the class, that patching with a delta turns into a copy of it
+     * @param patch Applies a delta (its second argument) to an object (its first) and returns a delta holding
+     *              only what actually changed the object, or null if nothing did
+     */
+    public static <T> MemoryKey<T> patchable(String name, Class<T> type, Supplier<T> empty, BinaryOperator<T> patch) {
+        return new MemoryKey<>(name, type, null, Objects.requireNonNull(empty), Objects.requireNonNull(patch));
+    }
+
+    /**
+     * Returns a key for a memory fragment holding a list of objects of the given class.
+     *
+     * @param name        The name of the memory fragment
+     * @param elementType The class of the elements of the list
+     */
+    public static <E> MemoryKey<ArrayList<E>> listOf(String name, Class<E> elementType) {
+        return new MemoryKey<>(name, ArrayList.class, Objects.requireNonNull(elementType), null, null);
+    }
+
+    /**
+     * Returns the name of the memory fragment this key refers to.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the class of the memory fragment, or ArrayList for a list.
+     */
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * Returns the class of the elements of the list, or null if the memory fragment is not a list.
+     */
+    public Class<?> getElementType() {
+        return elementType;
+    }
+
+    /**
+     * Returns whether memory fragments stored through this key can be patched with deltas.
+     */
+    public boolean isPatchable() {
+        return patch != null;
+    }
+
+    T newEmpty() {
+        return empty.get();
+    }
+
+    T patch(T value, T delta) {
+        return patch.apply(value, delta);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof MemoryKey<?> other)) return false;
+        return name.equals(other.name) && type == other.type && elementType == other.elementType;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, type, elementType);
+    }
+
+    @Override
+    public String toString() {
+        return elementType == null
+            ? String.format("%s: %s", name, type.getSimpleName())
+            : String.format("%s: List<%s>", name, elementType.getSimpleName());
+    }
+}
@@ -66,43 +66,39 @@ public class SimpleBehavior extends Behavior {
     private void discoverItem(AgentState agentState) {
         Perception perception = agentState.getPerception();
 
-        // Loop over whole perception
-        for (int x = 0; x < perception.getWidth(); x++) {
-            for (int y = 0; y < perception.getHeight(); y++) {
-                CellPerception cell = perception.getCellAt(x,y);
+        // Loop over the cells with a destination
+        for (CellPerception cell : perception.getCellsWith(DestinationRep.class)) {
+            Coordinate cellCoordinate = new Coordinate(cell.getX(), cell.getY());
 
-                if(cell == null) continue;
+            Color destinationColor = cell.getRepOfType(DestinationRep.class).getColor();
 
-                Coordinate cellCoordinate = new Coordinate(cell.getX(), cell.getY());
+            Destination destination = new Destination(cellCoordinate, destinationColor);
 
-                // Check if current cell contains a destination
-                if(cell.containsAnyDestination()) {
-                    Color destinationColor = cell.getRepOfType(DestinationRep.class).getColor();
+            // Check if destination was not discoverd yet
+            if(discoveredDestinations.contains(destination)) continue;
+            else {
+                discoveredDestinations.add(destination);
+                System.out.println("[discoverItems] New destination discovered (" + discoveredDestinations.size() + ")");
+            }
+        }
 
-                    Destination destination = new Destination(cellCoordinate, destinationColor);
+        // Loop over the cells with a packet (and no destination)
+        for (CellPerception cell : perception.getCellsWith(PacketRep.class)) {
+            if(cell.containsAnyDestination()) continue;
 
-                    // Check if destination was not discoverd yet
-                    if(discoveredDestinations.contains(destination)) continue;
-                    else {
-                        discoveredDestinations.add(destination);
-                        System.out.println("[discoverItems] New destination discovered (" + discoveredDestinations.size() + ")");
-                    }
-                }
-                // Check if current cell contains a packet
-                else if(cell.containsPacket()) {
-                    Color packetColor = cell.getRepOfType(PacketRep.class).getColor();
-                    
-                    Packet packet= new Packet(cellCoordinate, packetColor);
-
-                    // Check if packet was not discoverd yet
-                    if(toBeDeliveredPackets.contains(packet)) continue;
-                    // Check if packet is not currently handled (hence should not be added to list again)
-                    else if(task != null && task.getPacket().equals(packet)) continue;
-                    else {
-                        toBeDeliveredPackets.add(packet);
-                        System.out.println("[discoverItems] New packet discovered (" + toBeDeliveredPackets.size() + ")");
-                    }
-                }
+            Coordinate cellCoordinate = new Coordinate(cell.getX(), cell.getY());
+
+            Color packetColor = cell.getRepOfType(PacketRep.class).getColor();
+            
+            Packet packet= new Packet(cellCoordinate, packetColor);
+
+            // Check if packet was not discoverd yet
+            if(toBeDeliveredPackets.contains(packet)) continue;
+            // Check if packet is not currently handled (hence should not be added to list again)
+            else if(task != null && task.getPacket().equals(packet)) continue;
+            else {
+                toBeDeliveredPackets.add(packet);
+                System.out.println("[discoverItems] New packet discovered (" + toBeDeliveredPackets.size() + ")");
             }
         }
     }
@@ -363,24 +359,9 @@ public class SimpleBehavior extends Behavior {
         int packetX = packet.getCoordinate().getX();
         int packetY = packet.getCoordinate().getY();
         
-        // Loop over whole perception
-        for (int x = 0; x < perception.getWidth(); x++) {
-            for (int y = 0; y < perception.getHeight(); y++) {
-                CellPerception cell = perception.getCellAt(x,y);
-
-                if(cell == null) continue;
-
-                int cellX = cell.getX();
-                int cellY = cell.getY();
-                
-                // Check if coordinates correspond
-                if(cellX == packetX && cellY == packetY) {
-                    return !cell.containsPacket();
-                }
-            }
-        }
-
-        return false;
+        // Look up the cell in the perception
+        CellPerception cell = perception.getCellPerceptionOnAbsPos(packetX, packetY);
+        return cell != null && !cell.containsPacket();
     }
 
     /**
@@ -413,21 +394,7 @@ public class SimpleBehavior extends Behavior {
         int positionX = position.getX();
         int positionY = position.getY();
 
-        // Loop over whole perception
-        for (int x = 0; x < perception.getWidth(); x++) {
-            for (int y = 0; y < perception.getHeight(); y++) {
-                CellPerception cell = perception.getCellAt(x,y);
-
-                if(cell == null) continue;
-
-                int cellX = cell.getX();
-                int cellY = cell.getY();
-                
-                // Check if coordinates correspond
-                if(cellX == positionX && cellY == positionY) return true;
-            }
-        }
-
-        return false;
+        // Look up the cell in the perception
+        return perception.getCellPerceptionOnAbsPos(positionX, positionY) != null;
     }
 }
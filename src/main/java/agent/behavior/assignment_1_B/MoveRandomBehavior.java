@@ -85,56 +85,52 @@ public class MoveRandomBehavior extends Behavior {
         Task task = getTask(agentState);
         Graph graph = getGraph(agentState);
 
-        // Loop over whole perception
-        for (int x = 0; x < perception.getWidth(); x++) {
-            for (int y = 0; y < perception.getHeight(); y++) {
-                CellPerception cell = perception.getCellAt(x,y);
-
-                if(cell == null) continue;
-
-                Coordinate cellCoordinate = new Coordinate(cell.getX(), cell.getY());
-
-                // Check if current cell contains a destination
-                if(cell.containsAnyDestination()) {
-                    Color destinationColor = cell.getRepOfType(DestinationRep.class).getColor();
-
-                    Destination destination = new Destination(cellCoordinate, destinationColor);
-
-                    // Check if destination was not discoverd yet
-                    if(discoveredDestinations.contains(destination)) continue;
-                    else {
-                        discoveredDestinations.add(destination);
-
-                        System.out.println("[MoveRandomBehavior]{checkPerception} New destination discovered (" + discoveredDestinations.size() + ")");
-                    }
-
-                    // Update graph if unknown destination in cell
-                    if(!graph.nodeExists(cell.getX(), cell.getY())) {
-                        // If this destination is not already in the graph -> add it
-                        addDestinationToGraph(agentState, destination);
-                    }
-                }
-                // Check if current cell contains a packet
-                else if(cell.containsPacket()) {
-                    Color packetColor = cell.getRepOfType(PacketRep.class).getColor();
-                    
-                    Packet packet= new Packet(cellCoordinate, packetColor);
-
-                    // Check if packet was not discoverd yet
-                    if(discoveredPackets.contains(packet)) continue;
-                    // Check if packet is not currently handled (hence should not be added to list again)
-                    else if(task != null && task.getPacket().equals(packet)) continue;
-                    else {
-                        discoveredPackets.add(packet);
-
-                        System.out.println("[MoveRandomBehavior]{checkPerception} New packet discovered (" + discoveredPackets.size() + ")");
-                    }
-
-                    // Add node of agent position that says that agent can see packet from position.
-                    if (!graph.nodeExists(cell.getX(), cell.getY())) {
-                        addPacketToGraph(agentState, packet);
-                    }
-                }
+        // Loop over the cells with a destination
+        for (CellPerception cell : perception.getCellsWith(DestinationRep.class)) {
+            Coordinate cellCoordinate = new Coordinate(cell.getX(), cell.getY());
+
+            Color destinationColor = cell.getRepOfType(DestinationRep.class).getColor();
+
+            Destination destination = new Destination(cellCoordinate, destinationColor);
+
+            // Check if destination was not discoverd yet
+            if(discoveredDestinations.contains(destination)) continue;
+            else {
+                discoveredDestinations.add(destination);
+
+                System.out.println("[MoveRandomBehavior]{checkPerception} New destination discovered (" + discoveredDestinations.size() + ")");
+            }
+
+            // Update graph if unknown destination in cell
+            if(!graph.nodeExists(cell.getX(), cell.getY())) {
+                // If this destination is not already in the graph -> add it
+                addDestinationToGraph(agentState, destination);
+            }
+        }
+
+        // Loop over the cells with a packet (and no destination)
+        for (CellPerception cell : perception.getCellsWith(PacketRep.class)) {
+            if(cell.containsAnyDestination()) continue;
+
+            Coordinate cellCoordinate = new Coordinate(cell.getX(), cell.getY());
+
+            Color packetColor = cell.getRepOfType(PacketRep.class).getColor();
+            
+            Packet packet= new Packet(cellCoordinate, packetColor);
+
+            // Check if packet was not discoverd yet
+            if(discoveredPackets.contains(packet)) continue;
+            // Check if packet is not currently handled (hence should not be added to list again)
+            else if(task != null && task.getPacket().equals(packet)) continue;
+            else {
+                discoveredPackets.add(packet);
+
+                System.out.println("[MoveRandomBehavior]{checkPerception} New packet discovered (" + discoveredPackets.size() + ")");
+            }
+
+            // Add node of agent position that says that agent can see packet from position.
+            if (!graph.nodeExists(cell.getX(), cell.getY())) {
+                addPacketToGraph(agentState, packet);
             }
         }
 
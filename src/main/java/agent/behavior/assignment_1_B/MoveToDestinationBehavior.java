@@ -98,56 +98,52 @@ public class MoveToDestinationBehavior extends Behavior {
         Task task = getTask(agentState);
         Graph graph = getGraph(agentState);
 
-        // Loop over whole perception
-        for (int x = 0; x < perception.getWidth(); x++) {
-            for (int y = 0; y < perception.getHeight(); y++) {
-                CellPerception cell = perception.getCellAt(x,y);
+        // Loop over the cells with a destination
+        for (CellPerception cell : perception.getCellsWith(DestinationRep.class)) {
+            Coordinate cellCoordinate = new Coordinate(cell.getX(), cell.getY());
 
-                if(cell == null) continue;
+            Color destinationColor = cell.getRepOfType(DestinationRep.class).getColor();
 
-                Coordinate cellCoordinate = new Coordinate(cell.getX(), cell.getY());
+            Destination destination = new Destination(cellCoordinate, destinationColor);
 
-                // Check if current cell contains a destination
-                if(cell.containsAnyDestination()) {
-                    Color destinationColor = cell.getRepOfType(DestinationRep.class).getColor();
+            // Check if destination was not discoverd yet
+            if(discoveredDestinations.contains(destination)) continue;
+            else {
+                discoveredDestinations.add(destination);
 
-                    Destination destination = new Destination(cellCoordinate, destinationColor);
+                System.out.println("[MoveToDestinationBehavior]{checkPerception} New destination discovered (" + discoveredDestinations.size() + ")");
+            }
 
-                    // Check if destination was not discoverd yet
-                    if(discoveredDestinations.contains(destination)) continue;
-                    else {
-                        discoveredDestinations.add(destination);
+            // Update graph if unknown destination in cell
+            if(!graph.nodeExists(cell.getX(), cell.getY())) {
+                // If this destination is not already in the graph -> add it
+                addDestinationToGraph(agentState, destination);
+            }
+        }
 
-                        System.out.println("[MoveToDestinationBehavior]{checkPerception} New destination discovered (" + discoveredDestinations.size() + ")");
-                    }
+        // Loop over the cells with a packet (and no destination)
+        for (CellPerception cell : perception.getCellsWith(PacketRep.class)) {
+            if(cell.containsAnyDestination()) continue;
 
-                    // Update graph if unknown destination in cell
-                    if(!graph.nodeExists(cell.getX(), cell.getY())) {
-                        // If this destination is not already in the graph -> add it
-                        addDestinationToGraph(agentState, destination);
-                    }
-                }
-                // Check if current cell contains a packet
-                else if(cell.containsPacket()) {
-                    Color packetColor = cell.getRepOfType(PacketRep.class).getColor();
-                    
-                    Packet packet= new Packet(cellCoordinate, packetColor);
-
-                    // Check if packet was not discoverd yet
-                    if(discoveredPackets.contains(packet)) continue;
-                    // Check if packet is not currently handled (hence should not be added to list again)
-                    else if(task != null && task.getPacket().equals(packet)) continue;
-                    else {
-                        discoveredPackets.add(packet);
-
-                        System.out.println("[MoveToDestinationBehavior]{checkPerception} New packet discovered (" + discoveredPackets.size() + ")");
-                    }
-
-                    // Add node of agent position that says that agent can see packet from position.
-                    if (!graph.nodeExists(cell.getX(), cell.getY())) {
-                        addPacketToGraph(agentState, packet);
-                    }
-                }
+            Coordinate cellCoordinate = new Coordinate(cell.getX(), cell.getY());
+
+            Color packetColor = cell.getRepOfType(PacketRep.class).getColor();
+            
+            Packet packet= new Packet(cellCoordinate, packetColor);
+
+            // Check if packet was not discoverd yet
+            if(discoveredPackets.contains(packet)) continue;
+            // Check if packet is not currently handled (hence should not be added to list again)
+            else if(task != null && task.getPacket().equals(packet)) continue;
+            else {
+                discoveredPackets.add(packet);
+
+                System.out.println("[MoveToDestinationBehavior]{checkPerception} New packet discovered (" + discoveredPackets.size() + ")");
+            }
+
+            // Add node of agent position that says that agent can see packet from position.
+            if (!graph.nodeExists(cell.getX(), cell.getY())) {
+                addPacketToGraph(agentState, packet);
             }
         }
 
@@ -409,22 +405,8 @@ public class MoveToDestinationBehavior extends Behavior {
         int positionX = position.getX();
         int positionY = position.getY();
 
-        // Loop over whole perception
-        for (int x = 0; x < perception.getWidth(); x++) {
-            for (int y = 0; y < perception.getHeight(); y++) {
-                CellPerception cell = perception.getCellAt(x,y);
-
-                if(cell == null) continue;
-
-                int cellX = cell.getX();
-                int cellY = cell.getY();
-
-                // Check if coordinates correspond
-                if(cellX == positionX && cellY == positionY) return true;
-            }
-        }
-
-        return false;
+        // Look up the cell in the perception
+        return perception.getCellPerceptionOnAbsPos(positionX, positionY) != null;
     }
 
     /**
@@ -68,23 +68,8 @@ public class PacketAlreadyHandled extends BehaviorChange{
             int positionY = packet.getCoordinate().getY();
 
             Perception perception = agentState.getPerception();
-            for (int x = 0; x < perception.getWidth(); x++) {
-                for (int y = 0; y < perception.getHeight(); y++) {
-                    CellPerception cell = perception.getCellAt(x,y);
-
-                    if(cell == null) continue;
-
-                    int cellX = cell.getX();
-                    int cellY = cell.getY();
-                    
-                    // Check if positions correponds
-                    if(cellX == positionX && cellY == positionY) {
-                        return !cell.containsPacket();
-                    }
-                }
-            }
-
-            return false;
+            CellPerception cell = perception.getCellPerceptionOnAbsPos(positionX, positionY);
+            return cell != null && !cell.containsPacket();
         }
         else return false;
     }
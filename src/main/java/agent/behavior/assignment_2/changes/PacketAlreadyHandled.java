@@ -60,26 +60,10 @@ public class PacketAlreadyHandled extends BehaviorChange{
         // Get the perception of the agent
         Perception agentPerception = agentState.getPerception();
 
-        // Loop over the whole perception
-        for (int x = 0; x < agentPerception.getWidth(); x++) {
-            for (int y = 0; y < agentPerception.getHeight(); y++) {
-                CellPerception cellPerception = agentPerception.getCellAt(x,y);
+        // Look up the cell of the packet in the perception
+        CellPerception cellPerception = agentPerception.getCellPerceptionOnAbsPos(packetX, packetY);
 
-                // Check if the cell is null and continue with the next cell if so
-                if(cellPerception == null) continue;
-
-                // Get the position of the cell
-                int cellX = cellPerception.getX();
-                int cellY = cellPerception.getY();
-                
-                // Check if the positions correspond
-                if(cellX == packetX && cellY == packetY) {
-                    // Return if the cell does not contain a packet
-                    return !cellPerception.containsPacket();
-                }
-            }
-        }
-
-        return false;
+        // Return if the cell does not contain a packet
+        return cellPerception != null && !cellPerception.containsPacket();
     }
 }
@@ -64,7 +64,8 @@ public class TaskDefinitionPossible extends BehaviorChange{
         for (Task task : priorityTasks) {
             if (!task.isHandled() && GeneralUtils.conditionsSatisfied(agentState, task)) {
                 task.setHandled(true);
-                MemoryUtils.updateMemory(agentState, Map.of(MemoryKeys.TASK, task, MemoryKeys.PRIORITY_TASKS, priorityTasks));
+                // The current task gets a destination later on, which the priority task must not get
+                MemoryUtils.updateMemory(agentState, Map.of(MemoryKeys.TASK, new Task(task), MemoryKeys.PRIORITY_TASKS, priorityTasks));
                 return true;
             }
         }
@@ -72,8 +73,9 @@ public class TaskDefinitionPossible extends BehaviorChange{
         // Get the discovered packets and discovered destinations
 
         // Only get packets of same color here
-        ArrayList<Packet> discoveredPackets = MemoryUtils.getObjectFromMemory(agentState, MemoryKeys.GRAPH, Graph.class).getTargets(Packet.class);
-        ArrayList<Destination> discoveredDestinations = MemoryUtils.getObjectFromMemory(agentState, MemoryKeys.GRAPH, Graph.class).getTargets(Destination.class);
+        Graph graph = MemoryUtils.getObjectFromMemory(agentState, MemoryKeys.GRAPH, Graph.class);
+        ArrayList<Packet> discoveredPackets = graph.getTargets(Packet.class);
+        ArrayList<Destination> discoveredDestinations = graph.getTargets(Destination.class);
 
         // Sort the discovered packets
         PacketComparator packetComparator = new PacketComparator(agentState, discoveredDestinations);
@@ -161,7 +163,6 @@ public class TaskDefinitionPossible extends BehaviorChange{
             // Remove the packet at packet index from the discovered packets. No idea why this error exist because line 104 changes packageIndex
             if (packageIndex != Integer.MAX_VALUE) discoveredPackets.remove(packageIndex);
 
-            Graph graph = MemoryUtils.getObjectFromMemory(agentState, MemoryKeys.GRAPH, Graph.class);
             // graph.getNode(candidatePacket.getCoordinate()).get().setTarget(Optional.empty(), false);
 
             // Update the memory
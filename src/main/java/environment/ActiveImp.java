@@ -2,8 +2,8 @@ package environment;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 import support.Outcome;
 import synchronizer.Synchronization;
@@ -16,8 +16,10 @@ import util.Mutex;
 abstract public class ActiveImp implements Serializable, Runnable {
 
 
-    private boolean suspendRequested, firstCycle;
-    protected boolean running, initialRun, perceiving, talking, doing;
+    private volatile boolean suspendRequested;
+    private boolean firstCycle, terminated;
+    protected volatile boolean running;
+    protected boolean initialRun, perceiving, talking, doing;
     private final Object dummy = new Object();
     protected Environment environment;
     private Synchronization synchronizer;
@@ -28,6 +30,8 @@ abstract public class ActiveImp implements Serializable, Runnable {
     protected List<ActiveItemID> synchroCandidates;
     protected final Mutex lock;
     protected final ActiveItemID ID;
+    private PooledActivation activation;
+    private volatile boolean waitingForLock;
 
 
     private final Logger logger = Logger.getLogger(ActiveImp.class.getName());
@@ -38,6 +42,7 @@ abstract public class ActiveImp implements Serializable, Runnable {
         this.running = false;
         this.initialRun = true;
         this.firstCycle = true;
+        this.terminated = false;
         this.suspendRequested = false;
         this.perceiving = false;
         this.talking = true;
@@ -50,13 +55,29 @@ abstract public class ActiveImp implements Serializable, Runnable {
     abstract protected void cleanup();
 
     /**
-     * Starts this AgentImps execution
+     * Starts this AgentImps execution, either on a thread of its own or, if the environment
+     * provides an executor, as tasks on that executor.
      */
     public void awake() {
         nbTurn = 0;
-        Thread t = new Thread(this);
+        Executor executor = getEnvironment().getExecutor();
+        running = true;
+        if (executor == null) {
+            Thread t = new Thread(this);
+            t.start();
+        } else {
+            activation = new PooledActivation(executor,
+                    () -> !terminated && !waitingForLock && !(running && suspendRequested), this::step);
+            activation.resume();
+        }
+    }
+
+    /**
+     * Marks this AgentImp as running without starting its execution. Its phases are executed by a LockstepEngine instead.
+     */
+    void awakeInLockstep() {
+        nbTurn = 0;
         running = true;
-        t.start();
     }
 
     /**
@@ -65,6 +86,7 @@ abstract public class ActiveImp implements Serializable, Runnable {
     public void finish() {
         //stopping thread
         running = false;
+        waitingForLock = false;
         requestResume();
     }
 
@@ -102,6 +124,10 @@ abstract public class ActiveImp implements Serializable, Runnable {
      */
     protected void requestResume() {
         suspendRequested = false;
+        if (activation != null) {
+            activation.resume();
+            return;
+        }
         synchronized (dummy) {
             dummy.notify();
         }
@@ -130,18 +156,74 @@ abstract public class ActiveImp implements Serializable, Runnable {
         cleanup();
     }
 
+    /**
+     * A single iteration of the run cycle, used when this AgentImp is executed on an executor
+     * instead of on a thread of its own. Suspension is handled by the executor: no task is
+     * scheduled for this AgentImp as long as it is suspended. Neither is one while its lock is
+     * taken by the sphere that wakes it up; releasing the lock schedules it again.
+     */
+    private void step() {
+        if (initialRun) {
+            perceive();
+            initialRun = false;
+        }
+        if (running) {
+            if (!tryAcquireLock()) {
+                return;
+            }
+            if (checkSynchronize()) {
+                synchronize();
+            }
+            execCurrentPhase();
+        } else {
+            cleanup();
+            terminated = true;
+        }
+    }
+
+    /**
+     * Execute the current phase of this AgentImp until it concludes, without a thread of its own.
+     * Used by the LockstepEngine, which runs the same phase for all active items as one batch.
+     */
+    void executeRound() {
+        if (initialRun) {
+            perceive();
+            initialRun = false;
+        }
+        while (running && !suspendRequested) {
+            if (checkSynchronize()) {
+                synchronize();
+            }
+            executeCurrentPhase();
+        }
+    }
+
     /**
      * Ask a perception from Environment and retrieve information for
-     * synchronisation from the View
+     * synchronisation from the View.
+     * If this active item does not need perceptions, no perception is made and the
+     * candidates for synchronisation are only computed once.
      */
     protected void perceive() {
         nbTurn++;
-        setPerception(getEnvironment().getPerception(getActiveItemID()));
-        //synchroCandidates = getVisibleActiveItems();
-        synchroCandidates = getAllActiveItemIDs();
+        if (perceptionNeeded()) {
+            setPerception(getEnvironment().getPerception(getActiveItemID()));
+            //synchroCandidates = getVisibleActiveItems();
+            synchroCandidates = getAllActiveItemIDs();
+        } else if (synchroCandidates == null) {
+            synchroCandidates = getAllActiveItemIDs();
+        }
         setSyncTime(getEnvironment().getTime());
     }
 
+    /**
+     * Returns whether this active item reads the perceptions it is given. Active items that
+     * do not, still go through every phase of the action cycle, but do not get a perception.
+     */
+    protected boolean perceptionNeeded() {
+        return true;
+    }
+
     protected boolean checkSynchronize() {
         boolean result = firstCycle | perceiving;
         if (firstCycle) {
@@ -157,6 +239,31 @@ abstract public class ActiveImp implements Serializable, Runnable {
         //getLock().releaseLock();
     }
 
+    /**
+     * Takes the lock of this AgentImp if it is free. Otherwise, it is marked as waiting for the lock,
+     * and releaseLock() schedules it again.
+     */
+    private boolean tryAcquireLock() {
+        waitingForLock = true;
+        if (getLock().tryAcquireLock()) {
+            waitingForLock = false;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Releases the lock of this AgentImp for a sphere that took it, and schedules this AgentImp
+     * again if it waits for the lock on an executor.
+     */
+    void releaseLock() {
+        getLock().releaseLock();
+        if (waitingForLock) {
+            waitingForLock = false;
+            activation.resume();
+        }
+    }
+
     /**
      * Implements the execution of a synchronization phase.
      */
@@ -223,13 +330,11 @@ abstract public class ActiveImp implements Serializable, Runnable {
     /**
      * Returns the IDs of all the ActiveItems in the Environment.
      *
-     * @return An array containing the ID's of all the ActiveItems in the
-     *         Environment.
+     * @return The list of the Environment, shared by all active items. It also contains the ID of this
+     *         active item, which the synchronizer skips.
      */
     List<ActiveItemID> getAllActiveItemIDs() {
-        return this.getEnvironment().getActiveItemIDs().stream()
-            .filter(id -> id != this.getActiveItemID())
-            .collect(Collectors.toList());
+        return this.getEnvironment().getActiveItemIDs();
     }
 
 
@@ -1,6 +1,7 @@
 package environment;
 
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -33,6 +34,12 @@ public class ActiveItemContainer {
     private Synchronization synchronizer;
     private Environment environment;
 
+    /**
+     * The memory quota (in bytes) and memory report interval (in cycles) of the agents created from now on, 0 for none
+     */
+    private long memoryQuota;
+    private int memoryReportInterval;
+
 
     private final Logger logger = Logger.getLogger(ActiveItemContainer.class.getName());
 
@@ -63,6 +70,8 @@ public class ActiveItemContainer {
 
                 imp.setEnvironment(getEnvironment());
                 imp.setSynchronizer(getSynchronizer());
+                imp.setMemoryQuota(memoryQuota);
+                imp.setMemoryReportInterval(memoryReportInterval);
                 imp.createBehavior();
                 agents.put(imp.getActiveItemID(), imp);
             }
@@ -71,6 +80,22 @@ public class ActiveItemContainer {
         }
     }
 
+    /**
+     * Sets the number of bytes the memory fragments of each agent created from now on may take together.
+     * @param memoryQuota The quota in bytes, or 0 for no quota
+     */
+    public void setMemoryQuota(long memoryQuota) {
+        this.memoryQuota = memoryQuota;
+    }
+
+    /**
+     * Sets how often the agents created from now on report the size of their memory.
+     * @param memoryReportInterval The number of cycles between two reports, or 0 for no reports
+     */
+    public void setMemoryReportInterval(int memoryReportInterval) {
+        this.memoryReportInterval = memoryReportInterval;
+    }
+
     public void createObjectImps(Collection<ActiveItem<?>> aObjects) {
         for (ActiveItem<?> item : aObjects) {
             var newImp = item.generateImplementation(getEnvironment(), getSynchronizer());
@@ -147,7 +172,7 @@ public class ActiveItemContainer {
      */
     public void releaseLock(ActiveItemID agentID) {
         try {
-            getActiveImp(agentID).getLock().releaseLock();
+            getActiveImp(agentID).releaseLock();
         } catch (Exception exc) {
             //Normally NullPointerException or ArrayIndexOutOfBoundsException
             //NO-OP
@@ -162,6 +187,13 @@ public class ActiveItemContainer {
     //GET AND SETTERS
 
 
+    /**
+     * Returns all AgentImps and ActiveObjectImps, ordered by their ID.
+     */
+    List<ActiveImp> getActiveImps() {
+        return getActiveObjects().sorted(Comparator.comparing(ActiveImp::getActiveItemID)).toList();
+    }
+
     private Stream<ActiveImp> getActiveObjects() {
         return Stream.concat(agents.values().stream(), otherActiveItems.values().stream());
     }
@@ -174,8 +206,9 @@ public class ActiveItemContainer {
      *         null if no such Agent of ActiveObject found
      */
     protected ActiveImp getActiveImp(ActiveItemID ID) {
-        return getActiveObjects().filter(o -> o.getActiveItemID() == ID)
-                .findFirst().orElse(null);
+        // Both maps are keyed on the identity of the ID, so an ID is in at most one of them
+        ActiveImp imp = agents.get(ID);
+        return imp != null ? imp : otherActiveItems.get(ID);
     }
 
 
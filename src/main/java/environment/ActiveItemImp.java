@@ -16,6 +16,14 @@ abstract public class ActiveItemImp extends ActiveImp {
 
     protected void cleanup() {}
 
+    /**
+     * Active items other than agents act on their own state only, so they never need a perception.
+     */
+    @Override
+    protected boolean perceptionNeeded() {
+        return false;
+    }
+
     /**
      * Implements the execution of a synchronization phase.
      */
@@ -8,6 +8,9 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.LockSupport;
 import java.util.logging.Logger;
 
 import com.google.common.eventbus.EventBus;
@@ -25,6 +28,7 @@ import synchronizer.Synchronization;
 import util.AsciiReader;
 import util.Variables;
 import util.event.GameOverEvent;
+import util.event.RunAbortedEvent;
 
 /**
  * This is the main class for the GUI application.
@@ -42,6 +46,11 @@ public class ApplicationRunner {
     private final int DEFAULT_NB_PACKETS_PER_KIND = 5;
     private final int DEFAULT_VIEW = 3;
 
+    /**
+     * Target tick rate for running the simulation as fast as possible
+     */
+    public static final int UNLIMITED = 0;
+
     private String implementation;
     private String envFile;
     private String syncMode = DEFAULT_SYNCMODE;
@@ -55,11 +64,25 @@ public class ApplicationRunner {
     private ActiveItemContainer ais = null;
 
     private final Object dummy = new Object();
+    private final List<Runnable> onResume = new ArrayList<>();
     private int steps = 0;
-    private boolean pause = true;
-    private boolean stepMode = false;
-    private boolean stopped = false;
-    private int playSpeed = 100;
+    private volatile boolean pause = true;
+    private volatile boolean stepMode = false;
+    private volatile boolean stopped = false;
+    private volatile boolean finished = false;
+    private volatile long tickPeriod = 100_000_000L;
+    private long nextTickDeadline = 0;
+    private long windowStart = 0;
+    private int windowTicks = 0;
+    private volatile double tickRate = 0;
+    private long firstTick = 0;
+    private volatile long nbTicks = 0;
+    private Executor executor = null;
+    private boolean lockstep = false;
+    private boolean parallelInfluences = false;
+    private boolean parallelPerceptions = false;
+    private long memoryQuota = 0;
+    private int memoryReportInterval = 0;
     private final EventBus eventBus;
 
 
@@ -87,6 +110,11 @@ public class ApplicationRunner {
         this.stop();
     }
 
+    @Subscribe
+    private void handleRunAbortedEvent(RunAbortedEvent event) {
+        this.stop();
+    }
+
 
     //--------------------------------------------------------------------------
     //		INSPECTORS
@@ -96,25 +124,146 @@ public class ApplicationRunner {
         return custom;
     }
 
-    public synchronized void checkSuspended() {
-        if (steps > 0) {
-            steps--;
+    /**
+     * Called by the environment after every tick. Holds the simulation to the target tick rate when playing,
+     * and suspends it while paused or when the requested number of steps has been taken.
+     */
+    public void checkSuspended() {
+        countTick();
+        if (!stepMode && !paused()) {
+            // Playing: no need to take the lock
+            governTickRate();
+            return;
         }
+        checkSuspendedSlow();
+    }
 
-        try {
-            if (!stepMode) {
-                // Only sleep when in play mode, no need to stall execution when manually
-                // walking through step by step
-                Thread.sleep(playSpeed);
+    /**
+     * Like checkSuspended(), but without waiting. If the simulation is to be suspended, the given action is run once
+     * it is resumed (by play or step) instead, on the thread that resumes it. A finished simulation is not resumed. Used by a reactor that runs on
+     * an executor, so it does not keep a worker while the simulation is paused.
+     *
+     * @param resume The action that resumes the caller
+     * @return Whether the simulation may go on right away, in which case resume is not run
+     */
+    public boolean checkSuspended(Runnable resume) {
+        countTick();
+        if (!stepMode && !paused()) {
+            governTickRate();
+            return true;
+        }
+        synchronized (this) {
+            countStep();
+            synchronized (dummy) {
+                if (finished || !(paused() || (stepMode && steps <= 0))) {
+                    return true;
+                }
+                onResume.add(resume);
+                return false;
             }
-        } catch (InterruptedException ignored) {}
+        }
+    }
+
+    private synchronized void checkSuspendedSlow() {
+        countStep();
+        boolean waited = false;
         try {
             synchronized (dummy) {
-                while (paused() || (stepMode && steps <= 0)) {
+                while (!finished && (paused() || (stepMode && steps <= 0))) {
+                    waited = true;
                     dummy.wait();
                 }
             }
         } catch (InterruptedException ignored) {}
+
+        if (waited) {
+            restartTickWindow();
+        }
+    }
+
+    /**
+     * Counts a tick towards the requested number of steps, or holds the simulation to the target tick rate
+     * when playing.
+     */
+    private void countStep() {
+        if (steps > 0) {
+            steps--;
+        }
+
+        if (!stepMode) {
+            // Only stall when in play mode, no need to stall execution when manually
+            // walking through step by step
+            governTickRate();
+        }
+    }
+
+    /**
+     * Time spent suspended does not count for the tick rate.
+     */
+    private void restartTickWindow() {
+        windowStart = System.nanoTime();
+        windowTicks = 0;
+        nextTickDeadline = 0;
+    }
+
+    /**
+     * Wakes up whatever waits for the simulation to be resumed: threads in checkSuspended(), and the actions
+     * given to checkSuspended(Runnable). Must be called with the lock on dummy held.
+     *
+     * @param all Whether to wake up all waiting threads, or only one
+     * @return The actions to run once the lock on dummy is released
+     */
+    private List<Runnable> wakeUp(boolean all) {
+        if (all) {
+            dummy.notifyAll();
+        } else {
+            dummy.notify();
+        }
+        if (onResume.isEmpty()) {
+            return List.of();
+        }
+        restartTickWindow();
+        List<Runnable> resumed = new ArrayList<>(onResume);
+        onResume.clear();
+        return resumed;
+    }
+
+    /**
+     * Park the ticking thread until the next tick is due, so ticks follow each other at a fixed period.
+     * When the simulation falls behind by more than a period, it does not try to catch up.
+     */
+    private void governTickRate() {
+        long period = tickPeriod;
+        if (period == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (nextTickDeadline == 0 || now - nextTickDeadline > period) {
+            nextTickDeadline = now;
+        }
+        nextTickDeadline += period;
+        long remaining;
+        while ((remaining = nextTickDeadline - System.nanoTime()) > 0 && !finished) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    /**
+     * Register a tick for measuring the achieved tick rate, which is recomputed every half second.
+     */
+    private void countTick() {
+        long now = System.nanoTime();
+        if (firstTick == 0) {
+            firstTick = now;
+            windowStart = now;
+        }
+        nbTicks++;
+        windowTicks++;
+        if (now - windowStart >= 500_000_000L) {
+            tickRate = windowTicks * 1e9 / (now - windowStart);
+            windowStart = now;
+            windowTicks = 0;
+        }
     }
 
     //--------------------------------------------------------------------------
@@ -123,7 +272,11 @@ public class ApplicationRunner {
 
 
     public void prepareActiveItems() {
-        ais.startAllActiveImps();
+        if (lockstep) {
+            env.startLockstepEngine(ForkJoinPool.commonPool());
+        } else {
+            ais.startAllActiveImps();
+        }
     }
 
 
@@ -134,9 +287,11 @@ public class ApplicationRunner {
         }
         stepMode = false;
         pause = false;
+        List<Runnable> resumed;
         synchronized (dummy) {
-            dummy.notify();
+            resumed = wakeUp(false);
         }
+        resumed.forEach(Runnable::run);
     }
 
     public void stop() {
@@ -146,22 +301,43 @@ public class ApplicationRunner {
 
     public void reset() {
         stopped = false;
+        finish();
+        make(isCustom());
+    }
+
+    /**
+     * Tears down the current environment and all active items without creating new ones.
+     * A reactor that is suspended in {@link #checkSuspended()} is released so its thread can end.
+     */
+    public void finish() {
         pause = false;
+        finished = true;
 
         synchronized (dummy) {
-            dummy.notify();
+            // Whatever waits on an executor is not resumed, it has no thread to end
+            wakeUp(true);
+        }
+        if (env != null) {
+            env.finish();
+        }
+        if (ais != null) {
+            ais.finish();
         }
-        env.finish();
-        ais.finish();
         env = null;
         ais = null;
-        make(isCustom());
     }
 
     public boolean paused() {
         return pause;
     }
 
+    /**
+     * Returns whether the run has ended, by a game over or a failure, and can no longer be played.
+     */
+    public boolean isStopped() {
+        return stopped;
+    }
+
     public void setPaused() {
         this.pause = true;
     }
@@ -173,9 +349,11 @@ public class ApplicationRunner {
         stepMode = true;
         pause = false;
         steps++;
+        List<Runnable> resumed;
         synchronized (dummy) {
-            dummy.notify();
+            resumed = wakeUp(false);
         }
+        resumed.forEach(Runnable::run);
     }
 
 
@@ -194,6 +372,11 @@ public class ApplicationRunner {
      */
     public void make(boolean isCustom) {
         setCustom(isCustom);
+        finished = false;
+        firstTick = 0;
+        nbTicks = 0;
+        tickRate = 0;
+        nextTickDeadline = 0;
         Environment env;
 
         if (isCustom) {
@@ -208,6 +391,9 @@ public class ApplicationRunner {
             ApplicationRunner.logger.severe("env is null!");
         }
         setEnvironment(env);
+        env.setExecutor(executor);
+        env.setParallelInfluences(parallelInfluences);
+        env.setParallelPerceptions(parallelPerceptions);
         Synchronization sync = null;
         if (getSyncMode().equals("Central synchronization")) {
             sync = new CentralSynchronization();
@@ -217,6 +403,8 @@ public class ApplicationRunner {
             ApplicationRunner.logger.severe("sync is null!");
         }
         ActiveItemContainer ais = new ActiveItemContainer();
+        ais.setMemoryQuota(memoryQuota);
+        ais.setMemoryReportInterval(memoryReportInterval);
         setAgentImplementations(ais);
 
         sync.setEnvironment(env);
@@ -375,7 +563,7 @@ public class ApplicationRunner {
             }
 
             // If no energy stations in the world -> do not keep agent's battery in mind during execution of actions
-            EnergyValues.ENERGY_ENABLED = nbBatteries != 0;
+            env.setEnergyEnabled(nbBatteries != 0);
 
 
 
@@ -494,8 +682,35 @@ public class ApplicationRunner {
         return view;
     }
 
+    /**
+     * Returns the target delay between two ticks in milliseconds.
+     */
     public int getSpeed() {
-        return playSpeed;
+        return (int) (tickPeriod / 1_000_000L);
+    }
+
+    /**
+     * Returns the target number of ticks per second, or UNLIMITED.
+     */
+    public int getTargetTickRate() {
+        long period = tickPeriod;
+        return period == 0 ? UNLIMITED : (int) Math.round(1e9 / period);
+    }
+
+    /**
+     * Returns the number of ticks per second achieved over the last half second of playing.
+     */
+    public double getTickRate() {
+        return tickRate;
+    }
+
+    /**
+     * Returns the average number of ticks per second since the first tick of the current environment,
+     * including the time spent suspended.
+     */
+    public double getAverageTickRate() {
+        long elapsed = System.nanoTime() - firstTick;
+        return firstTick == 0 || elapsed <= 0 ? 0 : nbTicks * 1e9 / elapsed;
     }
 
     public String getEnvFile() {
@@ -514,6 +729,30 @@ public class ApplicationRunner {
         return eventBus;
     }
 
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    public boolean isLockstep() {
+        return lockstep;
+    }
+
+    public boolean isParallelInfluences() {
+        return parallelInfluences;
+    }
+
+    public boolean isParallelPerceptions() {
+        return parallelPerceptions;
+    }
+
+    public long getMemoryQuota() {
+        return memoryQuota;
+    }
+
+    public int getMemoryReportInterval() {
+        return memoryReportInterval;
+    }
+
 
 
     /**
@@ -569,8 +808,84 @@ public class ApplicationRunner {
         envFile = fileName;
     }
 
+    /**
+     * Sets the target delay between two ticks in milliseconds; 0 runs the simulation as fast as possible.
+     * @param s The new delay
+     */
     public void setSpeed(int s) {
-        playSpeed = s;
+        tickPeriod = s * 1_000_000L;
+    }
+
+    /**
+     * Sets the target number of ticks per second. The simulation is held to this rate independently of how
+     * often the GUI renders it.
+     * @param ticksPerSecond The new target tick rate, or UNLIMITED to run the simulation as fast as possible
+     * @throws IllegalArgumentException if ticksPerSecond is negative
+     */
+    public void setTargetTickRate(int ticksPerSecond) {
+        if (ticksPerSecond < 0) {
+            throw new IllegalArgumentException("Negative tick rate " + ticksPerSecond);
+        }
+        tickPeriod = ticksPerSecond == UNLIMITED ? 0 : 1_000_000_000L / ticksPerSecond;
+    }
+
+    /**
+     * Sets the execution mode used for environments made from now on.
+     * By default (null) every agent, active object and handler runs on a dedicated thread.
+     * With an executor (e.g. a fixed thread pool, or a virtual thread per task executor on
+     * runtimes that support it) they run as tasks on that executor instead, with the same
+     * phase semantics: an item that is suspended, waits for its turn or for a paused simulation does not occupy
+     * a thread, so a small pool can run any number of items.
+     * @param executor The executor to run on, or null for a dedicated thread per item
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Sets whether the active items are driven in lockstep by a LockstepEngine, which executes each phase
+     * for all of them as one parallel batch, instead of synchronizing through the collector and its spheres.
+     * Takes effect the next time the active items are prepared.
+     * @param lockstep Whether to drive the active items in lockstep
+     */
+    public void setLockstep(boolean lockstep) {
+        this.lockstep = lockstep;
+    }
+
+    /**
+     * Sets whether the reactor of environments made from now on effectuates the influences of each priority
+     * level in parallel, as far as they affect disjoint cells. The outcome is the same as applying them one by one.
+     * @param parallelInfluences Whether to apply influences in parallel
+     */
+    public void setParallelInfluences(boolean parallelInfluences) {
+        this.parallelInfluences = parallelInfluences;
+    }
+
+    /**
+     * Sets whether the reactor of environments made from now on builds the perceptions of the active items
+     * that acted in parallel at the end of every tick, from one state of the worlds.
+     * @param parallelPerceptions Whether to prepare perceptions in parallel
+     */
+    public void setParallelPerceptions(boolean parallelPerceptions) {
+        this.parallelPerceptions = parallelPerceptions;
+    }
+
+    /**
+     * Sets the number of bytes the memory fragments of each agent may take together, in environments made
+     * from now on. Writes to the memory of an agent that would exceed it are refused.
+     * @param memoryQuota The quota in bytes, or 0 for no quota
+     */
+    public void setMemoryQuota(long memoryQuota) {
+        this.memoryQuota = memoryQuota;
+    }
+
+    /**
+     * Sets how often the agents of environments made from now on report the size of their memory, per memory
+     * fragment, with a MemoryUsageEvent.
+     * @param memoryReportInterval The number of cycles between two reports, or 0 for no reports
+     */
+    public void setMemoryReportInterval(int memoryReportInterval) {
+        this.memoryReportInterval = memoryReportInterval;
     }
 
     public void setCustom(boolean custom) {
@@ -0,0 +1,381 @@
+package environment;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.LogManager;
+import java.util.logging.Logger;
+
+import com.google.common.eventbus.Subscribe;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import gui.video.EventTracker;
+import util.Variables;
+import util.event.GameOverEvent;
+import util.event.RunAbortedEvent;
+import util.event.WorldProcessedEvent;
+
+/**
+ * A headless batch engine. Every combination of implementation and environment is run a number of times,
+ * each run in its own ApplicationRunner (and thus its own Environment and EventBus). Runs are distributed
+ * over a fixed number of workers so independent runs execute concurrently.
+ *
+ * With -pool n, the agents and handlers of all runs are executed on one shared pool of n threads instead of
+ * on a dedicated thread each.
+ *
+ * With -lockstep, the active items of each run are driven in lockstep by a LockstepEngine instead.
+ *
+ * With -parallelInfluences, the reactor of each run applies influences on disjoint cells in parallel.
+ *
+ * With -parallelPerceptions, the reactor of each run builds the perceptions of the active items that acted in parallel.
+ *
+ * With -memoryQuota bytes, the memory fragments of each agent may take at most that many bytes together. With
+ * -memoryReport n, every agent reports the size of its memory fragments every n cycles, in the history of its run.
+ *
+ * A run that is not over after -timeout seconds (30 minutes by default, 0 for no limit) is aborted, like one that reaches
+ * -maxCycles.
+ *
+ * Usage: BatchRunner -impl a[,b...] -env x[,y...] [-runs n] [-workers n] [-pool n] [-lockstep] [-parallelInfluences] [-parallelPerceptions] [-memoryQuota bytes] [-memoryReport n] [-maxCycles n] [-timeout s] [-out file]
+ */
+public class BatchRunner {
+
+    private final List<String> implementations;
+    private final List<String> environments;
+    private final int nbRuns;
+    private final int nbWorkers;
+    private final int maxCycles;
+    private long timeout = DEFAULT_TIMEOUT;
+    private Executor executor;
+    private boolean lockstep;
+    private boolean parallelInfluences;
+    private boolean parallelPerceptions;
+    private long memoryQuota;
+    private int memoryReportInterval;
+
+    /**
+     * The number of seconds after which a run is aborted by default
+     */
+    public static final long DEFAULT_TIMEOUT = 30 * 60;
+
+    private static final Logger logger = Logger.getLogger(BatchRunner.class.getName());
+
+
+    //--------------------------------------------------------------------------
+    //		CONSTRUCTOR
+    //--------------------------------------------------------------------------
+
+    /**
+     * Initializes a new BatchRunner.
+     *
+     * @param implementations The agent implementations to evaluate.
+     * @param environments    The environments to evaluate each implementation in.
+     * @param nbRuns          The number of runs per implementation and environment.
+     * @param nbWorkers       The number of runs that are executed concurrently.
+     * @param maxCycles       The number of cycles after which a run is aborted, or 0 for no limit.
+     */
+    public BatchRunner(List<String> implementations, List<String> environments, int nbRuns, int nbWorkers, int maxCycles) {
+        this.implementations = implementations;
+        this.environments = environments;
+        this.nbRuns = nbRuns;
+        this.nbWorkers = nbWorkers;
+        this.maxCycles = maxCycles;
+    }
+
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+
+        Logger rootLogger = LogManager.getLogManager().getLogger("");
+        rootLogger.setLevel(Level.SEVERE);
+        Arrays.stream(rootLogger.getHandlers()).forEach(h -> h.setLevel(Level.SEVERE));
+
+        List<String> impls = new ArrayList<>();
+        List<String> envs = new ArrayList<>();
+        int runs = 1;
+        int workers = Runtime.getRuntime().availableProcessors();
+        int cycles = 0;
+        long timeout = DEFAULT_TIMEOUT;
+        int pool = 0;
+        boolean lockstep = false;
+        boolean parallelInfluences = false;
+        boolean parallelPerceptions = false;
+        long memoryQuota = 0;
+        int memoryReportInterval = 0;
+        String outputFile = Variables.OUTPUT_PATH + "outputBatch.json";
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "-impl" -> impls.addAll(Arrays.asList(args[++i].split(",")));
+                    case "-env" -> envs.addAll(Arrays.asList(args[++i].split(",")));
+                    case "-runs" -> runs = Integer.parseInt(args[++i]);
+                    case "-workers" -> workers = Integer.parseInt(args[++i]);
+                    case "-pool" -> pool = Integer.parseInt(args[++i]);
+                    case "-lockstep" -> lockstep = true;
+                    case "-parallelInfluences" -> parallelInfluences = true;
+                    case "-parallelPerceptions" -> parallelPerceptions = true;
+                    case "-memoryQuota" -> memoryQuota = Long.parseLong(args[++i]);
+                    case "-memoryReport" -> memoryReportInterval = Integer.parseInt(args[++i]);
+                    case "-maxCycles" -> cycles = Integer.parseInt(args[++i]);
+                    case "-timeout" -> timeout = Long.parseLong(args[++i]);
+                    case "-out" -> outputFile = args[++i];
+                    default -> throw new IllegalArgumentException("Unknown argument " + args[i]);
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            printUsage();
+            System.exit(1);
+        }
+
+        if (impls.isEmpty() || envs.isEmpty()) {
+            printUsage();
+            System.exit(1);
+        }
+
+        BatchRunner batch = new BatchRunner(impls, envs, runs, workers, cycles);
+        ExecutorService sharedPool = pool > 0 ? Executors.newFixedThreadPool(pool) : null;
+        batch.setExecutor(sharedPool);
+        batch.setTimeout(timeout);
+        batch.setLockstep(lockstep);
+        batch.setParallelInfluences(parallelInfluences);
+        batch.setParallelPerceptions(parallelPerceptions);
+        batch.setMemoryQuota(memoryQuota);
+        batch.setMemoryReportInterval(memoryReportInterval);
+        long start = System.currentTimeMillis();
+        JSONArray results = batch.runAll();
+        if (sharedPool != null) {
+            sharedPool.shutdownNow();
+        }
+        System.out.printf("%d runs finished in %.1f s%n", results.length(), (System.currentTimeMillis() - start) / 1000.0);
+
+        try (FileWriter writer = new FileWriter(outputFile)) {
+            results.write(writer, 0, 0);
+        } catch (IOException e) {
+            logger.severe(String.format("Could not write to output file %s: %s", outputFile, e.getMessage()));
+        }
+    }
+
+    private static void printUsage() {
+        System.err.println("Usage: BatchRunner -impl a[,b...] -env x[,y...] [-runs n] [-workers n] [-pool n] [-lockstep] [-parallelInfluences] [-parallelPerceptions] [-memoryQuota bytes] [-memoryReport n] [-maxCycles n] [-timeout s] [-out file]");
+    }
+
+
+    //--------------------------------------------------------------------------
+    //		MUTATORS
+    //--------------------------------------------------------------------------
+
+    /**
+     * Sets the executor shared by the active items and handlers of all runs.
+     *
+     * @param executor The executor, or null to run each of them on a thread of its own.
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Sets the number of seconds after which a run that is not over is aborted.
+     *
+     * @param timeout The timeout in seconds, or 0 for no limit.
+     */
+    public void setTimeout(long timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * Sets whether the active items of each run are driven in lockstep.
+     *
+     * @param lockstep Whether to use a LockstepEngine.
+     */
+    public void setLockstep(boolean lockstep) {
+        this.lockstep = lockstep;
+    }
+
+    /**
+     * Sets whether the reactor of each run applies influences in parallel.
+     *
+     * @param parallelInfluences Whether to apply influences on disjoint cells in parallel.
+     */
+    public void setParallelInfluences(boolean parallelInfluences) {
+        this.parallelInfluences = parallelInfluences;
+    }
+
+    /**
+     * Sets whether the reactor of each run prepares the perceptions of the active items in parallel.
+     *
+     * @param parallelPerceptions Whether to build the perceptions of the active items that acted in parallel.
+     */
+    public void setParallelPerceptions(boolean parallelPerceptions) {
+        this.parallelPerceptions = parallelPerceptions;
+    }
+
+    /**
+     * Sets the number of bytes the memory fragments of each agent may take together.
+     *
+     * @param memoryQuota The quota in bytes, or 0 for no quota.
+     */
+    public void setMemoryQuota(long memoryQuota) {
+        this.memoryQuota = memoryQuota;
+    }
+
+    /**
+     * Sets how often the agents of each run report the size of their memory in the history of the run.
+     *
+     * @param memoryReportInterval The number of cycles between two reports, or 0 for no reports.
+     */
+    public void setMemoryReportInterval(int memoryReportInterval) {
+        this.memoryReportInterval = memoryReportInterval;
+    }
+
+    /**
+     * Executes all runs and returns their histories, in the order implementation, environment, run.
+     * Runs that fail are logged and left out of the result.
+     */
+    public JSONArray runAll() {
+        ExecutorService workers = Executors.newFixedThreadPool(nbWorkers);
+        List<Future<JSONObject>> futures = new ArrayList<>();
+
+        for (String impl : implementations) {
+            for (String env : environments) {
+                for (int run = 1; run <= nbRuns; run++) {
+                    final int index = run;
+                    futures.add(workers.submit(() -> runOnce(impl, env, index)));
+                }
+            }
+        }
+
+        JSONArray results = new JSONArray();
+        for (Future<JSONObject> future : futures) {
+            try {
+                results.put(future.get());
+            } catch (ExecutionException e) {
+                logger.severe(String.format("Run failed: %s", e.getCause()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        workers.shutdownNow();
+        return results;
+    }
+
+    /**
+     * Executes a single run in a fresh ApplicationRunner and blocks until it is over, or until the timeout
+     * has passed. The runner is torn down afterwards, also if the run fails.
+     *
+     * @param impl  The agent implementation.
+     * @param env   The environment file (without extension).
+     * @param index The index of this run for the given implementation and environment.
+     * @return The history of the run, as produced by an EventTracker.
+     */
+    JSONObject runOnce(String impl, String env, int index) throws InterruptedException {
+        ApplicationRunner runner = new ApplicationRunner();
+        runner.setImplementation(impl);
+        runner.setEnvFile(env);
+        runner.setTargetTickRate(ApplicationRunner.UNLIMITED);
+        runner.setExecutor(executor);
+        runner.setLockstep(lockstep);
+        runner.setParallelInfluences(parallelInfluences);
+        runner.setParallelPerceptions(parallelPerceptions);
+        runner.setMemoryQuota(memoryQuota);
+        runner.setMemoryReportInterval(memoryReportInterval);
+        try {
+            runner.make(false);
+
+            EventTracker tracker = new EventTracker(t -> {}, runner);
+            RunMonitor monitor = new RunMonitor(runner);
+            runner.getEventBus().register(monitor);
+
+            runner.prepareActiveItems();
+            runner.play();
+            if (!monitor.await()) {
+                monitor.abort(new TimeoutException(String.format("Run did not end within %d s", timeout)));
+                runner.stop();
+            }
+
+            JSONObject history = tracker.getHistoryJSON();
+            history.getJSONObject("Meta").put("Run", index);
+            history.getJSONObject("Meta").put("Aborted", monitor.aborted);
+            if (monitor.failure != null) {
+                history.getJSONObject("Meta").put("Failure", monitor.failure.toString());
+            }
+            history.getJSONObject("Meta").put("OutcomesPerSecond", Math.round(runner.getEnvironment().getOutcomeThroughput()));
+            history.getJSONObject("Meta").put("CyclesPerSecond", Math.round(runner.getAverageTickRate()));
+            return history;
+        } finally {
+            runner.finish();
+        }
+    }
+
+
+    /**
+     * Listens on the event bus of a single run and signals when that run is over.
+     */
+    private class RunMonitor {
+
+        private final ApplicationRunner runner;
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile boolean aborted = false;
+        private volatile Throwable failure;
+
+        RunMonitor(ApplicationRunner runner) {
+            this.runner = runner;
+        }
+
+        @Subscribe
+        private void handleGameOverEvent(GameOverEvent event) {
+            done.countDown();
+        }
+
+        @Subscribe
+        private void handleRunAbortedEvent(RunAbortedEvent event) {
+            abort(event.getCause());
+            done.countDown();
+        }
+
+        @Subscribe
+        private void handleWorldProcessedEvent(WorldProcessedEvent event) {
+            Environment environment = runner.getEnvironment();
+            if (maxCycles > 0 && environment != null && environment.getTime() >= maxCycles) {
+                aborted = true;
+                runner.stop();
+                done.countDown();
+            }
+        }
+
+        /**
+         * Marks the run as aborted because of the given failure.
+         */
+        void abort(Throwable cause) {
+            failure = cause;
+            aborted = true;
+        }
+
+        /**
+         * Waits until the run is over, or until the timeout has passed.
+         *
+         * @return Whether the run is over.
+         */
+        boolean await() throws InterruptedException {
+            if (timeout <= 0) {
+                done.await();
+                return true;
+            }
+            return done.await(timeout, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -4,10 +4,12 @@ import java.awt.Color;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Predicate;
 
 import javax.annotation.Nullable;
 
 import environment.world.agent.AgentRep;
+import environment.world.conveyor.ConveyorRep;
 import environment.world.crumb.CrumbRep;
 import environment.world.destination.DestinationRep;
 import environment.world.energystation.EnergyStationRep;
@@ -22,10 +24,85 @@ import environment.world.wall.WallRep;
  * A class of representations of positions in a Perception.
  * A CellPerception is part of a Perception and has a list of all
  * Representations of items on that coordinate.
+ *
+ * Since every world holds at most one item per cell, the Representation of each
+ * kind of item is kept in a slot of its own, together with a bit mask of the
+ * occupied slots. Looking up a Representation by type is thus an array read.
  */
 
 public class CellPerception {
 
+    /**
+     * The kinds of Representations that have a slot of their own, one per world type.
+     */
+    private static final List<Class<? extends Representation>> KINDS = List.of(
+        AgentRep.class,
+        PacketRep.class,
+        DestinationRep.class,
+        FlagRep.class,
+        WallRep.class,
+        PheromoneRep.class,
+        EnergyStationRep.class,
+        GradientRep.class,
+        CrumbRep.class,
+        PacketGeneratorRep.class,
+        ConveyorRep.class
+    );
+
+    /**
+     * The slot of the Representations of a given class: the index in KINDS of the kind it belongs to,
+     * or -1 if it does not belong to any kind (e.g. Representation itself).
+     */
+    private static final ClassValue<Integer> SLOT = new ClassValue<>() {
+        @Override
+        protected Integer computeValue(Class<?> clazz) {
+            for (int i = 0; i < KINDS.size(); i++) {
+                if (KINDS.get(i).isAssignableFrom(clazz)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    };
+
+    private static final int AGENT = slotBit(AgentRep.class);
+    private static final int PACKET = slotBit(PacketRep.class);
+    private static final int DESTINATION = slotBit(DestinationRep.class);
+    private static final int FLAG = slotBit(FlagRep.class);
+    private static final int WALL = slotBit(WallRep.class);
+    private static final int PHEROMONE = slotBit(PheromoneRep.class);
+    private static final int ENERGY_STATION = slotBit(EnergyStationRep.class);
+    private static final int GRADIENT = slotBit(GradientRep.class);
+    private static final int CRUMB = slotBit(CrumbRep.class);
+    private static final int GENERATOR = slotBit(PacketGeneratorRep.class);
+
+    private static int slotBit(Class<? extends Representation> clazz) {
+        return 1 << SLOT.get(clazz);
+    }
+
+    /**
+     * Returns the number of slots, i.e. of kinds of Representations with a slot of their own.
+     */
+    static int getNbSlots() {
+        return KINDS.size();
+    }
+
+    /**
+     * Returns the slot of the Representations of the given class, or -1 if it has none.
+     * Subclasses of a kind share its slot.
+     */
+    static int getSlot(Class<?> clazz) {
+        return SLOT.get(clazz);
+    }
+
+    /**
+     * Checks whether the given class is the kind of its slot itself, rather than a subclass of it.
+     */
+    static boolean isKind(Class<?> clazz) {
+        int slot = SLOT.get(clazz);
+        return slot >= 0 && KINDS.get(slot) == clazz;
+    }
+
     /**
      * The x and y coordinate (wrt. the environment) of this cell.
      */
@@ -33,9 +110,27 @@ public class CellPerception {
     private final int y;
 
     /**
-     * The list of Representations of Items on (x, y)
+     * The Representations of Items on (x, y), by slot
      */
-    private final List<Representation> reps;
+    private final Representation[] slots;
+
+    /**
+     * The bit mask of the occupied slots
+     */
+    private int kinds;
+
+    /**
+     * The Representations on (x, y) that do not belong to any kind with a slot, or null if there are none
+     */
+    private List<Representation> others;
+
+    /**
+     * The bit mask of the slots of the kinds of the Representations in 'others'
+     */
+    private int otherKinds;
+
+    private int nbReps;
+    private boolean walkable;
 
 
 
@@ -48,7 +143,10 @@ public class CellPerception {
     public CellPerception(int x, int y) {
         this.x = x;
         this.y = y;
-        this.reps = new ArrayList<>();
+        this.slots = new Representation[KINDS.size()];
+        this.kinds = 0;
+        this.nbReps = 0;
+        this.walkable = true;
     }
 
     /**
@@ -57,11 +155,40 @@ public class CellPerception {
      * @param rep The Representation to be added.
      */
     public void addRep(Representation rep) {
-        this.reps.add(rep);
+        int slot = SLOT.get(rep.getClass());
+        if (slot < 0 || this.slots[slot] != null) {
+            if (this.others == null) {
+                this.others = new ArrayList<>(2);
+            }
+            this.others.add(rep);
+            if (slot >= 0) {
+                this.otherKinds |= 1 << slot;
+            }
+        } else {
+            this.slots[slot] = rep;
+            this.kinds |= 1 << slot;
+        }
+        this.nbReps++;
+        this.walkable &= rep.isWalkable();
     }
 
     public void clear() {
-        this.reps.clear();
+        while (this.kinds != 0) {
+            int slot = Integer.numberOfTrailingZeros(this.kinds);
+            this.slots[slot] = null;
+            this.kinds &= this.kinds - 1;
+        }
+        this.others = null;
+        this.otherKinds = 0;
+        this.nbReps = 0;
+        this.walkable = true;
+    }
+
+    /**
+     * Returns the bit mask of the slots of the kinds of Representations in this CellPerception.
+     */
+    int getKinds() {
+        return this.kinds | this.otherKinds;
     }
 
     /**
@@ -73,25 +200,100 @@ public class CellPerception {
     @SuppressWarnings("unchecked")
     @Nullable
     public <T extends Representation> T getRepOfType(Class<T> clazz) {
-        for (Representation representation : this.reps) {
-            if (clazz.isInstance(representation)) {
-                return (T) representation;
+        int slot = SLOT.get(clazz);
+        if (slot >= 0 && this.others == null) {
+            Representation representation = this.slots[slot];
+            return clazz.isInstance(representation) ? (T) representation : null;
+        }
+        return (T) this.findRep(clazz::isInstance);
+    }
+
+    /**
+     * Returns the first Representation in this CellPerception that satisfies the given predicate, or null if there is none.
+     */
+    @Nullable
+    private Representation findRep(Predicate<Representation> predicate) {
+        int remaining = this.kinds;
+        while (remaining != 0) {
+            Representation representation = this.slots[Integer.numberOfTrailingZeros(remaining)];
+            if (predicate.test(representation)) {
+                return representation;
+            }
+            remaining &= remaining - 1;
+        }
+        if (this.others != null) {
+            for (Representation representation : this.others) {
+                if (predicate.test(representation)) {
+                    return representation;
+                }
             }
         }
         return null;
     }
 
+    /**
+     * Returns a CellPerception of the same cell with only the Representations that satisfy the given predicate.
+     * If they all do, this CellPerception itself is returned.
+     */
+    CellPerception filter(Predicate<Representation> predicate) {
+        if (this.findRep(predicate.negate()) == null) {
+            return this;
+        }
+        CellPerception result = new CellPerception(this.x, this.y);
+        for (Representation representation : this.slots) {
+            if (representation != null && predicate.test(representation)) {
+                result.addRep(representation);
+            }
+        }
+        if (this.others != null) {
+            for (Representation representation : this.others) {
+                if (predicate.test(representation)) {
+                    result.addRep(representation);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new CellPerception of the same cell with the same Representations.
+     */
+    CellPerception copy() {
+        CellPerception result = new CellPerception(this.x, this.y);
+        for (Representation representation : this.slots) {
+            if (representation != null) {
+                result.addRep(representation);
+            }
+        }
+        if (this.others != null) {
+            for (Representation representation : this.others) {
+                result.addRep(representation);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether a Representation of the kind with the given slot bit (and class) is present.
+     */
+    private boolean hasKind(int bit, Class<? extends Representation> clazz) {
+        if (this.others == null) {
+            return (this.kinds & bit) != 0;
+        }
+        return this.getRepOfType(clazz) != null;
+    }
+
 
     /**
      * Check if this cell perception has a packet in it.
      * @return True if a packet is present in this cell perception, false otherwise.
      */
     public boolean containsPacket() {
-        return this.getRepOfType(PacketRep.class) != null;
+        return this.hasKind(PACKET, PacketRep.class);
     }
 
     public boolean containsGeneratorPacket() {
-        return this.getRepOfType(PacketGeneratorRep.class) != null;
+        return this.hasKind(GENERATOR, PacketGeneratorRep.class);
     }
 
     /**
@@ -99,7 +301,7 @@ public class CellPerception {
      * @return True if a wall is present in this cell perception, false otherwise.
      */
     public boolean containsWall() {
-        return this.getRepOfType(WallRep.class) != null;
+        return this.hasKind(WALL, WallRep.class);
     }
 
     /**
@@ -107,7 +309,7 @@ public class CellPerception {
      * @return True is a destination is present, false otherwise.
      */
     public boolean containsAnyDestination() {
-        return this.getRepOfType(DestinationRep.class) != null;
+        return this.hasKind(DESTINATION, DestinationRep.class);
     }
 
     /**
@@ -115,7 +317,7 @@ public class CellPerception {
      * @return True is an agent is present, false otherwise.
      */
     public boolean containsAgent() {
-        return this.getRepOfType(AgentRep.class) != null;
+        return this.hasKind(AGENT, AgentRep.class);
     }
 
     public boolean containsGlassWall() {
@@ -144,7 +346,7 @@ public class CellPerception {
      * @return True if an energy station representation is present, false otherwise.
      */
     public boolean containsEnergyStation() {
-        return this.getRepOfType(EnergyStationRep.class) != null;
+        return this.hasKind(ENERGY_STATION, EnergyStationRep.class);
     }
 
     /**
@@ -152,7 +354,7 @@ public class CellPerception {
      * @return True if a gradient is present, false otherwise.
      */
     public boolean containsGradient() {
-        return this.getGradientRepresentation().isPresent();
+        return this.hasKind(GRADIENT, GradientRep.class);
     }
 
     /**
@@ -168,7 +370,7 @@ public class CellPerception {
      * @return True if a flag is present, false otherwise.
      */
     public boolean containsFlag() {
-        return this.getFlagRepresentation().isPresent();
+        return this.hasKind(FLAG, FlagRep.class);
     }
 
     /**
@@ -195,7 +397,7 @@ public class CellPerception {
      * @return True if a pheromone is present, false otherwise.
      */
     public boolean containsPheromone() {
-        return this.getPheromoneRepresentation().isPresent();
+        return this.hasKind(PHEROMONE, PheromoneRep.class);
     }
 
     /**
@@ -212,7 +414,7 @@ public class CellPerception {
      * @return True if a crumb is present, false otherwise.
      */
     public boolean containsCrumb() {
-        return this.getCrumbRepresentation().isPresent();
+        return this.hasKind(CRUMB, CrumbRep.class);
     }
 
     /**
@@ -228,18 +430,18 @@ public class CellPerception {
      * Returns the number of Representations on this CellPerception.
      */
     public int getNbReps() {
-        return this.reps.size();
+        return this.nbReps;
     }
 
     /**
      * Checks whether there are any Representations on this CellPerception.
      */
     public boolean isFree() {
-        return this.reps.size() == 0;
+        return this.nbReps == 0;
     }
 
     public boolean isWalkable() {
-        return this.reps.stream().allMatch(Representation::isWalkable);
+        return this.walkable;
     }
 
 
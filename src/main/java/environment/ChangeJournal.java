@@ -0,0 +1,105 @@
+package environment;
+
+import java.util.Arrays;
+
+/**
+ * A journal of the cells of an Environment that changed. A cell is recorded whenever an item is put on it or
+ * removed from it, and whenever an item on it changes in a way that shows in its representation.
+ *
+ * Readers remember their position in the journal and later ask for the cells of an area that changed since then.
+ * The journal is indexed by region: every square region of REGION_SIZE x REGION_SIZE cells remembers when it last
+ * changed, and so does every cell. A reader only looks at the cells of regions in its area that changed since its
+ * position, so what it costs depends on the changes in its area, not on those in the whole environment.
+ */
+class ChangeJournal {
+
+    /**
+     * The width and height of a region, in cells
+     */
+    static final int REGION_SIZE = 8;
+
+    private final int width;
+    private final int regionsPerRow;
+
+    /**
+     * The number of the last change of every cell and of every region, where the first change has number 1,
+     * or 0 if it never changed.
+     */
+    private final long[] cellChanges;
+    private final long[] regionChanges;
+
+    /**
+     * The number of changes recorded so far.
+     */
+    private long end;
+
+
+    /**
+     * Initializes a new ChangeJournal.
+     *
+     * @param width  The width of the environment.
+     * @param height The height of the environment.
+     */
+    ChangeJournal(int width, int height) {
+        this.width = width;
+        this.regionsPerRow = (width + REGION_SIZE - 1) / REGION_SIZE;
+        this.cellChanges = new long[width * height];
+        this.regionChanges = new long[regionsPerRow * ((height + REGION_SIZE - 1) / REGION_SIZE)];
+        this.end = 0;
+    }
+
+    /**
+     * Records a change of the given cell.
+     *
+     * @param cell The index of the cell (y * width + x).
+     */
+    synchronized void record(int cell) {
+        end++;
+        cellChanges[cell] = end;
+        regionChanges[regionOf(cell % width, cell / width)] = end;
+    }
+
+    /**
+     * Returns the current position in this journal, i.e. the number of changes recorded so far.
+     */
+    synchronized long getPosition() {
+        return end;
+    }
+
+    /**
+     * Returns the cells of the given area that changed since the given position.
+     *
+     * @param position A position returned by getPosition().
+     * @return The indices of the changed cells (y * width + x), each at most once.
+     */
+    synchronized int[] getChangesSince(long position, int minX, int minY, int maxX, int maxY) {
+        int[] changes = new int[16];
+        int nbChanges = 0;
+        for (int ry = minY / REGION_SIZE; ry <= maxY / REGION_SIZE; ry++) {
+            for (int rx = minX / REGION_SIZE; rx <= maxX / REGION_SIZE; rx++) {
+                if (regionChanges[ry * regionsPerRow + rx] <= position) {
+                    continue;
+                }
+                // only the part of the region inside the area
+                int toY = Math.min(maxY, ry * REGION_SIZE + REGION_SIZE - 1);
+                int toX = Math.min(maxX, rx * REGION_SIZE + REGION_SIZE - 1);
+                for (int y = Math.max(minY, ry * REGION_SIZE); y <= toY; y++) {
+                    for (int x = Math.max(minX, rx * REGION_SIZE); x <= toX; x++) {
+                        int cell = y * width + x;
+                        if (cellChanges[cell] > position) {
+                            if (nbChanges == changes.length) {
+                                changes = Arrays.copyOf(changes, 2 * nbChanges);
+                            }
+                            changes[nbChanges++] = cell;
+                        }
+                    }
+                }
+            }
+        }
+        return Arrays.copyOf(changes, nbChanges);
+    }
+
+    private int regionOf(int x, int y) {
+        return (y / REGION_SIZE) * regionsPerRow + x / REGION_SIZE;
+    }
+}
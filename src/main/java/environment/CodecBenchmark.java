@@ -0,0 +1,62 @@
+package environment;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import util.Message;
+import util.assignments.jackson.JacksonCodecs;
+import util.assignments.jackson.JacksonUtils;
+import util.assignments.targets.ChargingStation;
+
+/**
+ * A microbenchmark of sending and receiving a mail through JSON.
+ *
+ * The mail is a charging station broadcast: a list of charging stations, written to a String and wrapped in a
+ * Message, which is written in turn. Receiving it reads the Message and then the list. This is timed in two ways:
+ * <ul>
+ *     <li>with a new ObjectMapper for each write and read, as the agents used to do, and</li>
+ *     <li>with the readers and writers shared through JacksonCodecs.</li>
+ * </ul>
+ *
+ * Usage: CodecBenchmark [seconds per measurement] [rounds]
+ */
+public class CodecBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        long duration = (args.length > 0 ? Long.parseLong(args[0]) : 3) * 1_000_000_000L;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+
+        List<ChargingStation> stations = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            stations.add(new ChargingStation(new Coordinate(i, 2 * i)));
+        }
+
+        for (int round = 1; round <= rounds; round++) {
+            long end = System.nanoTime() + duration;
+            int count = 0;
+            while (System.nanoTime() < end) {
+                ObjectMapper sender = JacksonUtils.buildObjectMapper();
+                String mail = sender.writeValueAsString(new Message(sender.writeValueAsString(stations), "stations"));
+                ObjectMapper receiver = JacksonUtils.buildObjectMapper();
+                Message message = receiver.readValue(mail, Message.class);
+                receiver.readValue(message.getMessage(),
+                        receiver.getTypeFactory().constructCollectionType(ArrayList.class, ChargingStation.class));
+                count++;
+            }
+            System.out.printf("round %d: new mappers: %.1f us per send and receive%n", round, duration / 1000.0 / count);
+
+            end = System.nanoTime() + duration;
+            count = 0;
+            while (System.nanoTime() < end) {
+                String mail = JacksonCodecs.write(new Message(JacksonCodecs.write(stations), "stations"));
+                Message message = JacksonCodecs.read(mail, Message.class);
+                JacksonCodecs.readList(message.getMessage(), ChargingStation.class);
+                count++;
+            }
+            System.out.printf("round %d: shared codecs: %.1f us per send and receive%n", round, duration / 1000.0 / count);
+        }
+    }
+}
@@ -1,7 +1,16 @@
 package environment;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -12,17 +21,31 @@ import support.Outcome;
  * of a mas is a capital synchronization tool, together with the spheres it manages. An incoming outcome is handled by either
  * integrating it and its sync set in the existing spheres, or by creating a new sphere. Further responsibility for the handling of
  * the incoming outcome is left to the spheres.
+ *
+ * Outcomes are deposited in a lock-free queue, so active items posting outcomes never contend on the collector's monitor.
+ * The collector thread drains that queue and parks when it is empty; a depositing active item unparks it.
+ *
+ * The sphere of each agent is kept in an index, so finding the spheres an outcome touches takes one lookup per id in its sync
+ * set. Entries of spheres that have been merged or removed since are resolved lazily through Sphere.getRoot().
  */
 public class Collector implements Runnable {
 
+    private static final int INITIAL_CAPACITY = 4;
+
     private Sphere[] spheres;
     private int nbSpheres;
-    private final List<Outcome> inBuffer;
-    private int nbInBuffer;
-
-    private final Object dummy = new Object();
-    private boolean suspendRequested;
-    private boolean running;
+    private final Map<ActiveItemID, Sphere> sphereIndex;
+    private final Queue<Outcome> inBuffer;
+    private final AtomicInteger nbInBuffer;
+
+    private final Thread consumer;
+    private volatile boolean waiting;
+    private volatile boolean running;
+    private final PooledActivation activation;
+
+    private final AtomicLong nbProcessed;
+    private volatile long firstCollectTime;
+    private volatile long lastProcessTime;
     private final EOPHandler eOPHandler;
     private final Reactor reactor;
     private final PostalService postalService;
@@ -33,10 +56,12 @@ public class Collector implements Runnable {
 
     /**
      * Initialize a new Collector with an empty set of Spheres and holding references to the three handlers the
-     * environment. At initialization time, a new Thread is created associated with the new Collector instance.
+     * environment. At initialization time, a new Thread is created associated with the new Collector instance, unless
+     * an executor is given.
      * @param eOPHandler The handler for end of perception tokens.
      * @param reactor The reactor of this environment
      * @param postalService The postalService of this environment
+     * @param executor The executor that processes incoming outcomes, or null to process them on a thread of its own
      * @post new.getNbSpheres()==0.
      * @post new.getAgentImplementations()==agentImplementations
      * @post new.getEOPHandler()==eOPHandler
@@ -46,18 +71,29 @@ public class Collector implements Runnable {
     public Collector(ActiveItemContainer agentImplementations,
             EOPHandler eOPHandler,
             Reactor reactor,
-            PostalService postalService) {
-        this.spheres = new Sphere[0];
+            PostalService postalService,
+            Executor executor) {
+        this.spheres = new Sphere[INITIAL_CAPACITY];
         this.nbSpheres = 0;
-        this.inBuffer = new ArrayList<>();
-        this.nbInBuffer = 0;
+        // Keyed on identity: ids read from environment files are not unique across kinds of active items
+        this.sphereIndex = new IdentityHashMap<>();
+        this.inBuffer = new ConcurrentLinkedQueue<>();
+        this.nbInBuffer = new AtomicInteger(0);
+        this.nbProcessed = new AtomicLong(0);
         this.agentImplementations = agentImplementations;
         this.eOPHandler = eOPHandler;
         this.reactor = reactor;
         this.postalService = postalService;
-        Thread t = new Thread(this);
-        this.suspendRequested = true;
-        t.start();
+        this.waiting = false;
+        this.running = true;
+        if (executor == null) {
+            this.activation = null;
+            this.consumer = new Thread(this);
+            this.consumer.start();
+        } else {
+            this.consumer = null;
+            this.activation = new PooledActivation(executor, () -> running && !inBuffer.isEmpty(), this::monitorInBuffer);
+        }
     }
 
     /**
@@ -66,84 +102,115 @@ public class Collector implements Runnable {
      * @post new.getNbSpheres()==getNbSpheres()+1
      */
     protected Sphere makeNewSphere(Outcome outcome) {
-        Sphere[] temp = new Sphere[nbSpheres + 1];
-        if (nbSpheres >= 0) {
-            System.arraycopy(spheres, 0, temp, 0, nbSpheres);
+        if (nbSpheres == spheres.length) {
+            spheres = Arrays.copyOf(spheres, spheres.length * 2);
         }
 
         Sphere novel = new Sphere(this, getAgentImplementations(),
                                   getEOPHandler(), getPostalService(),
                                   getReactor());
-        temp[nbSpheres] = novel;
+        novel.setSlot(nbSpheres);
+        spheres[nbSpheres] = novel;
         nbSpheres++;
-        spheres = temp;
         novel.integrate(outcome);
         return novel;
     }
 
+    /**
+     * Register <sphere> as the sphere holding the outcome of the agent with id <agent>.
+     */
+    void indexMember(ActiveItemID agent, Sphere sphere) {
+        sphereIndex.put(agent, sphere);
+    }
+
+    /**
+     * Return the sphere managed by this Collector that holds an outcome of the agent with id <agent>, or null if there is none.
+     */
+    Sphere findSphere(ActiveItemID agent) {
+        Sphere indexed = sphereIndex.get(agent);
+        if (indexed == null) {
+            return null;
+        }
+        Sphere root = indexed.getRoot();
+        if (root.isRemoved()) {
+            sphereIndex.remove(agent);
+            return null;
+        }
+        if (root != indexed) {
+            sphereIndex.put(agent, root);
+        }
+        return root;
+    }
+
     /**
      * Deposit the outcome <outcome> in this Collector's buffer and wake up the thread the latter is associated with, if sleeping.
+     * This method does not lock, so any number of active items can deposit their outcomes concurrently.
      * @param outcome The outcome to be deposited in the Collector's buffer.
      * @post new.getNbInBuffer()==getNbInBuffer()+1
      */
-    public synchronized void collectOutcome(Outcome outcome) {
-        inBuffer.add(outcome);
-        nbInBuffer++;
-        if (suspendRequested) {
-            requestResume();
+    public void collectOutcome(Outcome outcome) {
+        if (firstCollectTime == 0) {
+            firstCollectTime = System.nanoTime();
         }
+        inBuffer.offer(outcome);
+        nbInBuffer.incrementAndGet();
+        requestResume();
     }
 
     /**
-     * If not asleep, monitor the buffer of this Collector for outcomes
-     * to be handled.
+     * Monitor the buffer of this Collector for outcomes to be handled, parking the collector thread
+     * whenever the buffer is empty.
      */
     public void run() {
-        running = true;
         while (running) {
-            checkSuspended();
-            if (running) {
-                monitorInBuffer();
+            if (!monitorInBuffer()) {
+                awaitOutcome();
             }
         }
     }
 
     /**
-     * Process the outcome deposited in this Collector's buffer.
+     * Process the first outcome deposited in this Collector's buffer, if any.
+     * @return 'true' if an outcome was processed, 'false' if the buffer was empty
      */
-    synchronized void monitorInBuffer() {
-        if (inBuffer.isEmpty()) {
-            requestSuspend();
-        } else {
-            Outcome first = inBuffer.remove(0);
+    boolean monitorInBuffer() {
+        Outcome first = inBuffer.poll();
+        if (first == null) {
+            return false;
+        }
+        // Spheres are also removed by the handlers, see removeSphere()
+        synchronized (this) {
             synchronized (first) {
                 processOutcome(first);
             }
         }
+        nbProcessed.incrementAndGet();
+        lastProcessTime = System.nanoTime();
+        return true;
     }
 
-    private void checkSuspended() {
-        try {
-            synchronized (dummy) {
-                while (suspendRequested) {
-                    this.logger.fine("Collector thread puts himself to sleep");
-                    dummy.wait();
-                }
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
+    /**
+     * Park the collector thread until an outcome is deposited or this collector is finished.
+     * The buffer is checked again after announcing the wait, so an outcome deposited in between is never missed.
+     */
+    private void awaitOutcome() {
+        waiting = true;
+        if (running && inBuffer.isEmpty()) {
+            this.logger.fine("Collector thread puts himself to sleep");
+            LockSupport.park(this);
         }
+        waiting = false;
     }
 
-    private void requestSuspend() {
-        suspendRequested = true;
-    }
-
+    /**
+     * Wake up the collector thread if it is parked, or schedule this collector on its executor.
+     */
     public void requestResume() {
-        suspendRequested = false;
-        synchronized (dummy) {
+        if (activation != null) {
+            activation.resume();
+        } else if (waiting) {
             this.logger.fine("Collector thread woken up by incoming outcome");
-            dummy.notify();
+            LockSupport.unpark(consumer);
         }
     }
 
@@ -160,9 +227,7 @@ public class Collector implements Runnable {
         Sphere[] toBeMerged = getSpheresToBeMerged(outcome);
         Sphere changed;
         if (toBeMerged.length == 0) {
-            synchronized (spheres) {
-                changed = makeNewSphere(outcome);
-            }
+            changed = makeNewSphere(outcome);
             this.logger.fine("New Sphere for outcome made; after this, ");
 
         } else {
@@ -180,17 +245,21 @@ public class Collector implements Runnable {
     }
 
     /**
-     * Merges the spheres <toBeMerged>. One of the spheres to be merged is thereby extended with the contents of the others and
-     * the latter are removed from the set of Spheres managed by this Collector.
+     * Merges the spheres <toBeMerged>. The largest of the spheres to be merged is thereby extended with the contents of the others
+     * and the latter are removed from the set of Spheres managed by this Collector.
      * @param toBeMerged The set of spheres to be merged.
      * @pre toBeMerged.length > 0
      */
     protected Sphere merge(Sphere[] toBeMerged) {
         Sphere basicSphere = toBeMerged[0];
-        if (toBeMerged.length > 1) {
-            for (Sphere sphere : toBeMerged) {
+        for (Sphere sphere : toBeMerged) {
+            if (sphere.getNbElements() > basicSphere.getNbElements()) {
+                basicSphere = sphere;
+            }
+        }
+        for (Sphere sphere : toBeMerged) {
+            if (sphere != basicSphere) {
                 basicSphere.incorporate(sphere);
-                sphere.clear();
             }
         }
         return basicSphere;
@@ -204,17 +273,17 @@ public class Collector implements Runnable {
      * @post new.nbSpheres == nbSpheres-1
      */
     protected synchronized void removeSphere(Sphere toBeRemoved) {
-        Sphere[] temp = new Sphere[spheres.length - 1];
-        int i = 0, j = i;
-        while (i < spheres.length) {
-            if (spheres[i] != toBeRemoved) {
-                temp[j] = spheres[i];
-                j++;
-            }
-            i++;
+        if (toBeRemoved.isRemoved()) {
+            return;
         }
+        // Move the last sphere into the freed slot
+        int slot = toBeRemoved.getSlot();
+        Sphere last = spheres[nbSpheres - 1];
+        spheres[slot] = last;
+        last.setSlot(slot);
+        spheres[nbSpheres - 1] = null;
         nbSpheres--;
-        spheres = temp;
+        toBeRemoved.setRemoved();
     }
 
     /**
@@ -227,45 +296,27 @@ public class Collector implements Runnable {
      *       <outcome> or the id of one of its syncSet-members.
      */
     protected Sphere[] getSpheresToBeMerged(Outcome outcome) {
-        ActiveItemID[] tempSet = new ActiveItemID[ (outcome.getSyncSet()).length + 1];
-        tempSet[0] = outcome.getAgentID();
-        for (int k = 0; k < outcome.getSyncSet().length; k++) {
-            tempSet[k + 1] = outcome.getSyncSet()[k];
+        List<Sphere> result = new ArrayList<>();
+        addSphereOf(outcome.getAgentID(), result);
+        for (ActiveItemID id : outcome.getSyncSet()) {
+            addSphereOf(id, result);
         }
-        List<Integer> temp = new ArrayList<>();
-        int i = 0;
-        while (i < tempSet.length) {
-            int j = 0;
-            boolean found = false;
-            while (!found && j < spheres.length) {
-                if (spheres[j].containsOutcomeOf(tempSet[i])) {
-                    found = true;
-                    boolean notYetThere = true;
-                    for (int l = 0; notYetThere && l < temp.size(); l++) {
-                        if (j == temp.get(l)) {
-                            notYetThere = false;
-                        }
-                    }
-                    if (notYetThere) {
-                        temp.add(j);
-                    }
-                }
-                j++;
-            }
-            i++;
-        }
-        Sphere[] result = new Sphere[temp.size()];
-        for (int k = 0; k < result.length; k++) {
-            result[k] = spheres[temp.get(k)];
+        return result.toArray(new Sphere[0]);
+    }
+
+    private void addSphereOf(ActiveItemID agent, List<Sphere> result) {
+        Sphere sphere = findSphere(agent);
+        // Outcomes rarely touch more than one sphere, so this list stays tiny
+        if (sphere != null && !result.contains(sphere)) {
+            result.add(sphere);
         }
-        return result;
     }
 
 
     public void printSphereSet() {
         if (this.logger.isLoggable(Level.FINE)) {
             this.logger.fine(String.format("Collector now manages %d spheres:", nbSpheres));
-            for (int i = 0; i < spheres.length; i++) {
+            for (int i = 0; i < nbSpheres; i++) {
                 this.logger.fine(String.format("\tSphere number %d:", i));
                 spheres[i].printSphere();
             }
@@ -278,7 +329,26 @@ public class Collector implements Runnable {
     }
 
     int getNbInBuffer() {
-        return nbInBuffer;
+        return nbInBuffer.get();
+    }
+
+    /**
+     * Return the number of outcomes this Collector has processed.
+     */
+    public long getNbProcessed() {
+        return nbProcessed.get();
+    }
+
+    /**
+     * Return the average number of outcomes processed per second, measured from the first deposited outcome
+     * to the last processed one.
+     */
+    public double getThroughput() {
+        long elapsed = lastProcessTime - firstCollectTime;
+        if (firstCollectTime == 0 || elapsed <= 0) {
+            return 0;
+        }
+        return getNbProcessed() * 1e9 / elapsed;
     }
 
     /**
@@ -306,12 +376,13 @@ public class Collector implements Runnable {
         return agentImplementations;
     }
 
-    Sphere[] getSpheres() {
-        return spheres;
+    synchronized Sphere[] getSpheres() {
+        return Arrays.copyOf(spheres, nbSpheres);
     }
 
     public void finish() {
         running = false;
+        this.logger.fine(String.format("Collector processed %d outcomes (%.0f outcomes/s)", getNbProcessed(), getThroughput()));
         requestResume();
 
     }
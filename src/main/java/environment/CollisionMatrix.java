@@ -2,79 +2,101 @@ package environment;
 
 import java.awt.Color;
 
-import environment.world.agent.AgentWorld;
-import environment.world.conveyor.ConveyorWorld;
-import environment.world.crumb.CrumbWorld;
-import environment.world.destination.DestinationRep;
-import environment.world.destination.DestinationWorld;
-import environment.world.energystation.EnergyStationWorld;
-import environment.world.flag.FlagWorld;
-import environment.world.generator.PacketGeneratorWorld;
+import environment.world.agent.Agent;
+import environment.world.conveyor.Conveyor;
+import environment.world.crumb.Crumb;
+import environment.world.destination.Destination;
+import environment.world.energystation.EnergyStation;
+import environment.world.flag.Flag;
+import environment.world.generator.PacketGenerator;
 import environment.world.gradient.Gradient;
-import environment.world.packet.PacketWorld;
+import environment.world.packet.Packet;
 import environment.world.pheromone.Pheromone;
+import environment.world.wall.Wall;
 
 /**
  * A class that keeps track of which (kind of) Items can stand together on one
  * area and which cannot.
+ *
+ * Every kind of Item has a bit of its own. The Environment keeps, for every cell,
+ * the bits of the kinds of Items standing on it (see Environment.getCellKinds),
+ * so whether an Item can stand on a cell comes down to testing that mask against
+ * the kinds the Item tolerates.
  */
 public class CollisionMatrix {
 
-    public static boolean agentCanStandOn(Environment env, int x, int y) {
-        for (World<?> w : env.getWorlds()) {
-            if (w.getItem(x, y) != null &&
-                    !(w instanceof CrumbWorld) &&
-                    !(w instanceof FlagWorld) &&
-                    !(w.getItem(x, y) instanceof Pheromone) &&
-                    !(w.getItem(x, y) instanceof Gradient)
-
-            ) {
-                return false;
-            }
+    public static final int AGENT          = 1;
+    public static final int CONVEYOR       = 1 << 1;
+    public static final int CRUMB          = 1 << 2;
+    public static final int DESTINATION    = 1 << 3;
+    public static final int ENERGY_STATION = 1 << 4;
+    public static final int FLAG           = 1 << 5;
+    public static final int GENERATOR      = 1 << 6;
+    public static final int GRADIENT       = 1 << 7;
+    public static final int PACKET         = 1 << 8;
+    public static final int PHEROMONE      = 1 << 9;
+    public static final int WALL           = 1 << 10;
+    /**
+     * Any other kind of item, which does not tolerate anything and is not tolerated by anything
+     */
+    public static final int OTHER          = 1 << 11;
+
+    /**
+     * Returns the kind bit of the given item.
+     *
+     * @param item The item, or null
+     * @return     The kind of the item, or 0 if it is null
+     */
+    static int kindOf(Object item) {
+        if (item == null) {
+            return 0;
+        } else if (item instanceof Agent) {
+            return AGENT;
+        } else if (item instanceof Conveyor) {
+            return CONVEYOR;
+        } else if (item instanceof Crumb) {
+            return CRUMB;
+        } else if (item instanceof Destination) {
+            return DESTINATION;
+        } else if (item instanceof EnergyStation) {
+            return ENERGY_STATION;
+        } else if (item instanceof Flag) {
+            return FLAG;
+        } else if (item instanceof PacketGenerator) {
+            return GENERATOR;
+        } else if (item instanceof Gradient) {
+            return GRADIENT;
+        } else if (item instanceof Packet) {
+            return PACKET;
+        } else if (item instanceof Pheromone) {
+            return PHEROMONE;
+        } else if (item instanceof Wall) {
+            return WALL;
         }
-        return true;
+        return OTHER;
+    }
+
+    /**
+     * Checks whether only the given kinds of items stand on the cell (x, y).
+     */
+    private static boolean onlyKinds(Environment env, int x, int y, int tolerated) {
+        return (env.getCellKinds(x, y) & ~tolerated) == 0;
+    }
+
+    public static boolean agentCanStandOn(Environment env, int x, int y) {
+        return onlyKinds(env, x, y, CRUMB | FLAG | PHEROMONE | GRADIENT);
     }
 
     public static boolean areaValueCanStandOn(Environment env, int x, int y) {
-        for (World<?> w : env.getWorlds()) {
-            if (w.getItem(x, y) != null &&
-                    !(w instanceof AgentWorld) &&
-                    !(w instanceof CrumbWorld) &&
-                    !(w instanceof FlagWorld) &&
-                    !(w instanceof EnergyStationWorld) &&
-                    !(w instanceof PacketWorld) &&
-                    !(w instanceof PacketGeneratorWorld) &&
-                    !(w.getItem(x, y) instanceof Pheromone)
-            ) {
-                return false;
-            }
-        }
-        return true;
+        return onlyKinds(env, x, y, AGENT | CRUMB | FLAG | ENERGY_STATION | PACKET | GENERATOR | PHEROMONE);
     }
 
     public static boolean crumbCanStandOn(Environment env, int x, int y) {
-        for (World<?> w : env.getWorlds()) {
-            if (w.getItem(x, y) != null &&
-                    !(w instanceof AgentWorld) &&
-                    !(w instanceof FlagWorld) &&
-                    !(w.getItem(x, y) instanceof Pheromone) &&
-                    !(w.getItem(x, y) instanceof Gradient)
-            ) {
-                return false;
-            }
-        }
-        return true;
+        return onlyKinds(env, x, y, AGENT | FLAG | PHEROMONE | GRADIENT);
     }
 
     public static boolean destinationCanStandOn(Environment env, int x, int y) {
-        for (World<?> w : env.getWorlds()) {
-            if (w.getItem(x, y) != null &&
-                    !(w.getItem(x, y) instanceof Gradient)
-            ) {
-                return false;
-            }
-        }
-        return true;
+        return onlyKinds(env, x, y, GRADIENT);
     }
 
     public static boolean energyStationCanStandOn(Environment env, int x, int y) {
@@ -82,108 +104,45 @@ public class CollisionMatrix {
     }
 
     public static boolean flagCanStandOn(Environment env, int x, int y) {
-        for (World<?> w : env.getWorlds()) {
-            if (w.getItem(x, y) != null &&
-                    !(w instanceof AgentWorld) &&
-                    !(w instanceof CrumbWorld) &&
-                    !(w.getItem(x, y) instanceof Pheromone) &&
-                    !(w.getItem(x, y) instanceof Gradient)
-            ) {
-                return false;
-            }
-        }
-        return true;
+        return onlyKinds(env, x, y, AGENT | CRUMB | PHEROMONE | GRADIENT);
     }
 
     public static boolean gradientCanStandOn(Environment env, int x, int y) {
-        for (World<?> w : env.getWorlds()) {
-            if (w.getItem(x, y) != null &&
-                    !(w instanceof AgentWorld) &&
-                    !(w instanceof CrumbWorld) &&
-                    !(w instanceof FlagWorld) &&
-                    !(w instanceof PacketWorld) &&
-                    !(w instanceof PacketGeneratorWorld) &&
-                    !(w.getItem(x, y) instanceof Pheromone)
-            ) {
-                return false;
-            }
-        }
-        return true;
+        return onlyKinds(env, x, y, AGENT | CRUMB | FLAG | PACKET | GENERATOR | PHEROMONE);
     }
 
     public static boolean packetCanStandOn(Environment env, int x, int y, Color color) {
-        for (World<?> w : env.getWorlds()) {
-            if (w.getItem(x, y) != null &&
-                    !(w instanceof CrumbWorld) &&
-                    !(w instanceof DestinationWorld && ((DestinationRep) w.getItem(x, y).getRepresentation()).getColor() == color) &&
-                    !(w instanceof PacketGeneratorWorld) &&
-                    !(w instanceof ConveyorWorld) &&
-                    !(w.getItem(x, y) instanceof Pheromone) &&
-                    !(w.getItem(x, y) instanceof Gradient)
-            ) {
-                return false;
-            }
+        int kinds = env.getCellKinds(x, y);
+        if ((kinds & ~(CRUMB | DESTINATION | GENERATOR | CONVEYOR | PHEROMONE | GRADIENT)) != 0) {
+            return false;
         }
-        return true;
+        // Only a destination of the same color as the packet is tolerated
+        return (kinds & DESTINATION) == 0 || env.getDestinationWorld().getItem(x, y).getColor() == color;
     }
 
     public static boolean pheromoneCanStandOn(Environment env, int x, int y) {
-        for (World<?> w : env.getWorlds()) {
-            if (w.getItem(x, y) != null &&
-                    !(w instanceof AgentWorld) &&
-                    !(w instanceof CrumbWorld) &&
-                    !(w instanceof FlagWorld) &&
-                    !(w instanceof PacketWorld) &&
-                    !(w.getItem(x, y) instanceof Pheromone) &&
-                    !(w.getItem(x, y) instanceof Gradient)
-            ) {
-                return false;
-            }
-        }
-        return true;
+        return onlyKinds(env, x, y, AGENT | CRUMB | FLAG | PACKET | PHEROMONE | GRADIENT);
     }
 
 
     public static boolean wallCanStandOn(Environment env, int x, int y) {
-        for (World<?> w : env.getWorlds()) {
-            if (w.getItem(x, y) != null) {
-                return false;
-            }
-        }
-        return true;
+        return env.getCellKinds(x, y) == 0;
     }
 
 
     public static boolean glassWallCanStandOn(Environment env, int x, int y) {
-        for (World<?> w : env.getWorlds()) {
-            if (w.getItem(x, y) != null) {
-                return false;
-            }
-        }
-        return true;
+        return env.getCellKinds(x, y) == 0;
     }
 
 
     public static boolean generatorCanStandOn(Environment env, int x, int y) {
         // Only packets can stand on the same square as the generator
-        for (World<?> w : env.getWorlds()) {
-            // If an item is present that is not in the PacketWorld --> collision
-            if (w.getItem(x, y) != null && !(w instanceof PacketWorld)) {
-                return false;
-            }
-        }
-        return true;
+        return onlyKinds(env, x, y, PACKET);
     }
 
-    
+
     public static boolean conveyorCanStandOn(Environment env, int x, int y) {
         // Only packets can stand on a conveyor belt
-        for (World<?> w : env.getWorlds()) {
-            // If an item is present that is not in the PacketWorld --> collision
-            if (w.getItem(x, y) != null && !(w instanceof PacketWorld)) {
-                return false;
-            }
-        }
-        return true;
+        return onlyKinds(env, x, y, PACKET);
     }
 }
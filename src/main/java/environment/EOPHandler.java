@@ -1,11 +1,17 @@
 package environment;
 
+import java.util.concurrent.Executor;
+
 public class EOPHandler extends Handler<EOPSet> {
 
     public EOPHandler() {
         super();
     }
 
+    public EOPHandler(Executor executor) {
+        super(executor);
+    }
+
     protected void process(EOPSet toBeHandled) {
         // NO-OP: the environment does not react to tokens of agents that they have ended perception; this class is merely there
         // for elegance (parallelism in structure).
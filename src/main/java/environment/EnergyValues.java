@@ -13,7 +13,6 @@ public class EnergyValues {
     public static final int BATTERY_DECAY_STEP = 10;
     public static final int BATTERY_DECAY_STEP_WITH_CARRY = 20;
     public static final int BATTERY_DECAY_SKIP = 5;
-    public static boolean ENERGY_ENABLED = true;
 
 
     public static int calculateEnergyCost(AgentActionEvent event, boolean includeCharging) {
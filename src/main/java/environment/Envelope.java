@@ -0,0 +1,54 @@
+package environment;
+
+import java.util.Arrays;
+
+/**
+ * The typed content of a mail: a compact header, made of the type of the content, the name of its sender
+ * and a version, followed by the content itself as a binary payload.
+ *
+ * The payload is handed from the sender to the receivers as it is, without being turned into a String
+ * or copied on the way; neither side should change it after the envelope is made.
+ */
+public record Envelope(String type, String sender, long version, byte[] payload) {
+
+    public String getType() {
+        return type;
+    }
+
+    public String getSender() {
+        return sender;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    /**
+     * Get the size of the payload in bytes.
+     */
+    public int getSize() {
+        return payload == null ? 0 : payload.length;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        return object instanceof Envelope envelope
+            && version == envelope.version
+            && type.equals(envelope.type)
+            && sender.equals(envelope.sender)
+            && Arrays.equals(payload, envelope.payload);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * (31 * type.hashCode() + sender.hashCode()) + Long.hashCode(version)) + Arrays.hashCode(payload);
+    }
+
+    public String toString() {
+        return String.format("[Envelope - TYPE: %s, SENDER: %s, VERSION: %d, PAYLOAD: %d bytes]", this.type, this.sender, this.version, getSize());
+    }
+}
@@ -2,7 +2,17 @@ package environment;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
@@ -75,18 +85,83 @@ public class Environment {
      */
     protected final int height;
 
+    /**
+     * For every cell (indexed by y * width + x), the kinds of the items standing on it, one bit per kind as
+     * defined in CollisionMatrix. Kept up to date by the worlds whenever an item is put or freed.
+     */
+    private final int[] cellKinds;
+
+    /**
+     * The cells that changed recently, used to keep perceptions up to date incrementally
+     */
+    private final ChangeJournal changeJournal;
+
 
     /**
      * All the worlds this environment contains
      */
     private List<World<?>> worlds;
 
+    /**
+     * The worlds of this environment, keyed on their class
+     */
+    private final Map<Class<?>, World<?>> worldsByClass;
+
     /**
      * All the active items this environment contains
      * invar: aItem contains only ActiveItems
      */
     private final List<ActiveItem<?>> aItems;
 
+    /**
+     * The active items of this environment, keyed on their ID. IDs are compared on identity,
+     * because the numbers of agents and of other active items overlap.
+     */
+    private final Map<ActiveItemID, ActiveItem<?>> aItemsByID;
+
+    /**
+     * The IDs of the active items of this environment, in the order of aItems. The list is unmodifiable and
+     * is replaced whenever an active item is added or removed, so it can be shared with every caller.
+     */
+    private List<ActiveItemID> aItemIDs;
+
+    /**
+     * Whether the battery of agents is taken into account in this environment
+     */
+    private boolean energyEnabled;
+
+    /**
+     * The executor on which the active items and handlers of this environment run,
+     * or null if each of them runs on a thread of its own
+     */
+    private Executor executor;
+
+    /**
+     * Whether the reactor effectuates influences that affect disjoint cells in parallel
+     */
+    private boolean parallelInfluences;
+
+    /**
+     * Whether the perceptions of the active items that acted are prepared in parallel at the end of every tick
+     */
+    private boolean parallelPerceptions;
+
+    /**
+     * The perceptions prepared at the end of the last tick of each active item, that it has not picked up yet
+     */
+    private final Map<ActiveItemID, Perception> preparedPerceptions = new ConcurrentHashMap<>();
+
+    /**
+     * The engine driving the active items of this environment in lockstep,
+     * or null if they are synchronized by the collector
+     */
+    private LockstepEngine lockstepEngine;
+
+    /**
+     * The event bus of the run this environment is part of
+     */
+    private EventBus eventBus;
+
 
     private final Logger logger = Logger.getLogger(Environment.class.getName());
 
@@ -103,8 +178,14 @@ public class Environment {
     public Environment(int widthAmount, int heightAmount) {
         this.width = widthAmount;
         this.height = heightAmount;
+        this.cellKinds = new int[widthAmount * heightAmount];
+        this.changeJournal = new ChangeJournal(widthAmount, heightAmount);
         this.worlds = new ArrayList<>();
+        this.worldsByClass = new HashMap<>();
         this.aItems = new ArrayList<>();
+        this.aItemsByID = new IdentityHashMap<>();
+        this.aItemIDs = List.of();
+        this.energyEnabled = true;
     }
 
     //--------------------------------------------------------------------------
@@ -128,15 +209,37 @@ public class Environment {
      * @return          a perception for the ActiveItem with ID <code>aItemID</code>
      */
     public Perception getPerception(ActiveItemID aItemID) {
-        for (ActiveItem<?> activeItem : getActiveItems()) {
-            if (activeItem.getID() == aItemID) {
-                return pReactor.getPerception(activeItem);
-            }
+        Perception prepared = preparedPerceptions.remove(aItemID);
+        if (prepared != null) {
+            return prepared;
+        }
+        ActiveItem<?> activeItem = aItemsByID.get(aItemID);
+        if (activeItem != null) {
+            return pReactor.getPerception(activeItem);
         }
         this.logger.severe("No ActiveItem found by that ID.");
         throw new RuntimeException(String.format("No ActiveItem found by ID %d", aItemID.getID()));
     }
 
+    /**
+     * Builds the perceptions of the given active items that need one in parallel, to be handed out by getPerception.
+     * Called by the reactor at the end of a tick, while it is the only one changing the worlds, so all
+     * perceptions are made from the same state of the worlds.
+     *
+     * @param  aItemIDs  the IDs of the active items that will perceive next
+     */
+    void preparePerceptions(Collection<ActiveItemID> aItemIDs) {
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(aItemIDs.size());
+        for (ActiveItemID id : aItemIDs) {
+            ActiveItem<?> activeItem = aItemsByID.get(id);
+            ActiveImp activeImp = getAgentImplementations().getActiveImp(id);
+            if (activeItem != null && activeImp != null && activeImp.perceptionNeeded()) {
+                tasks.add(ForkJoinTask.adapt(() -> preparedPerceptions.put(id, pReactor.getPerception(activeItem))));
+            }
+        }
+        ForkJoinPool.commonPool().invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+    }
+
     /**
      * Returns a world from the worlds listed in <code>worlds</code>, that is
      * an instance of a class, named <code>worldClass<code>. If no such world
@@ -149,10 +252,9 @@ public class Environment {
      */
     @SuppressWarnings("unchecked")
     public <T extends World<?>> T getWorld(Class<T> worldClass) {
-        for (World<?> w : worlds) {
-            if (w.getClass() == worldClass) {
-                return (T) w;
-            }
+        World<?> w = worldsByClass.get(worldClass);
+        if (w != null) {
+            return (T) w;
         }
 
         throw new RuntimeException("Could not find world class: " + worldClass.getName());
@@ -204,7 +306,60 @@ public class Environment {
      * @return   (getItemsOnPos(x, y) == null)
      */
     public boolean isFreePos(int x, int y) {
-        return getWorlds().stream().allMatch(w -> w.getItem(x, y) == null);
+        return getCellKinds(x, y) == 0;
+    }
+
+    /**
+     * Test whether an agent can stand on the (x,y)-coordinate.
+     *
+     * @param x  the x-coordinate
+     * @param y  the y-coordinate
+     * @return   CollisionMatrix.agentCanStandOn(this, x, y)
+     */
+    public boolean isWalkable(int x, int y) {
+        return CollisionMatrix.agentCanStandOn(this, x, y);
+    }
+
+    /**
+     * Returns the kinds of the items on the (x,y)-coordinate.
+     *
+     * @param x  the x-coordinate
+     * @param y  the y-coordinate
+     * @return   the bits (see CollisionMatrix) of all kinds of items standing on (x,y)
+     * @throws   IndexOutOfBoundsException if (x,y) is not in this environment
+     */
+    public int getCellKinds(int x, int y) {
+        return cellKinds[Objects.checkIndex(y, height) * width + Objects.checkIndex(x, width)];
+    }
+
+    /**
+     * Updates the kinds of the items on the (x,y)-coordinate after an item was put there or removed.
+     *
+     * @param x        the x-coordinate
+     * @param y        the y-coordinate
+     * @param removed  the kind of the item that was replaced, or 0
+     * @param added    the kind of the item that was put, or 0
+     */
+    void updateCellKinds(int x, int y, int removed, int added) {
+        int index = y * width + x;
+        cellKinds[index] = (cellKinds[index] & ~removed) | added;
+    }
+
+    /**
+     * Records in the change journal that the (x,y)-coordinate changed.
+     *
+     * @param x  the x-coordinate
+     * @param y  the y-coordinate
+     */
+    void recordChange(int x, int y) {
+        changeJournal.record(y * width + x);
+    }
+
+    /**
+     * Returns the journal of the cells of this Environment that changed.
+     */
+    ChangeJournal getChangeJournal() {
+        return changeJournal;
     }
 
     /**
@@ -234,6 +389,7 @@ public class Environment {
      */
     public void createEnvironment(ApplicationRunner applicationRunner, EventBus eventBus) {
         this.logger.fine("Start creating the environment");
+        this.eventBus = eventBus;
 
         clock = new Clock();
         this.logger.fine("clock set");
@@ -244,14 +400,14 @@ public class Environment {
         pReactor = new PerceptionReactor(this);
         this.logger.fine("perceptionReactor set");
 
-        postalService = new PostalService(getAgentImplementations(), eventBus);
+        postalService = new PostalService(getAgentImplementations(), eventBus, executor);
         this.logger.fine("postalService set");
 
-        eopHandler = new EOPHandler();
+        eopHandler = new EOPHandler(executor);
         this.logger.fine("eopHandler set");
 
         collector = new Collector(getAgentImplementations(), eopHandler,
-                                  reactor, postalService);
+                                  reactor, postalService, executor);
         this.logger.fine("collector set");
     }
 
@@ -297,6 +453,7 @@ public class Environment {
      */
     public <T extends World<?>> void addWorld(T world) {
         worlds.add(world);
+        worldsByClass.putIfAbsent(world.getClass(), world);
     }
 
     /**
@@ -306,7 +463,22 @@ public class Environment {
      * @param outcome  the outcome to put in the collector's buffer
      */
     public void collectOutcome(Outcome outcome) {
-        collector.collectOutcome(outcome);
+        if (lockstepEngine != null) {
+            lockstepEngine.collect(outcome);
+        } else {
+            collector.collectOutcome(outcome);
+        }
+    }
+
+    /**
+     * Starts driving all active items in lockstep instead of letting each of them run on its own.
+     * Outcomes are then no longer handed to the collector but to the lockstep engine.
+     *
+     * @param pool  the pool on which the phases of the active items are executed
+     */
+    public void startLockstepEngine(ForkJoinPool pool) {
+        lockstepEngine = new LockstepEngine(getAgentImplementations().getActiveImps(), postalService, reactor, pool, eventBus);
+        lockstepEngine.start();
     }
 
 
@@ -318,6 +490,9 @@ public class Environment {
     }
 
     public void finish() {
+        if (lockstepEngine != null) {
+            lockstepEngine.finish();
+        }
         reactor.finish();
         eopHandler.finish();
         collector.finish();
@@ -445,6 +620,14 @@ public class Environment {
         return clock.getTime();
     }
 
+    /**
+     * Gets the average number of outcomes per second the collector of this Environment has processed
+     * @return The outcome throughput of the collector, or 0 if no outcome has been processed yet
+     */
+    public double getOutcomeThroughput() {
+        return collector.getThroughput();
+    }
+
     /**
      * Gets the clock of this Environment
      * @return This Environment's clock
@@ -454,6 +637,71 @@ public class Environment {
     }
 
 
+    /**
+     * Check whether the battery of agents is taken into account in this Environment
+     * @return 'true' if actions of agents consume energy
+     */
+    public boolean isEnergyEnabled() {
+        return this.energyEnabled;
+    }
+
+    /**
+     * Sets whether the battery of agents is taken into account in this Environment
+     * @param energyEnabled The new energyEnabled value
+     */
+    public void setEnergyEnabled(boolean energyEnabled) {
+        this.energyEnabled = energyEnabled;
+    }
+
+    /**
+     * Returns the executor on which the active items and handlers of this Environment run
+     * @return The executor, or null if each of them runs on a thread of its own
+     */
+    public Executor getExecutor() {
+        return this.executor;
+    }
+
+    /**
+     * Sets the executor on which the active items and handlers of this Environment run.
+     * Only has effect if called before the environment is created and the active items are started.
+     * @param executor The new executor, or null to give each of them a thread of its own
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Returns whether the reactor of this Environment effectuates influences that affect disjoint cells in parallel
+     * @return True if influences are applied in parallel, false if they are applied one by one
+     */
+    public boolean isParallelInfluences() {
+        return this.parallelInfluences;
+    }
+
+    /**
+     * Sets whether the reactor of this Environment effectuates influences that affect disjoint cells in parallel.
+     * @param parallelInfluences True to apply influences in parallel, false to apply them one by one
+     */
+    public void setParallelInfluences(boolean parallelInfluences) {
+        this.parallelInfluences = parallelInfluences;
+    }
+
+    /**
+     * Returns whether the perceptions of the active items that acted are prepared in parallel at the end of every tick
+     * @return True if perceptions are prepared by the reactor, false if each active item builds its own when it perceives
+     */
+    public boolean isParallelPerceptions() {
+        return this.parallelPerceptions;
+    }
+
+    /**
+     * Sets whether the perceptions of the active items that acted are prepared in parallel at the end of every tick.
+     * @param parallelPerceptions True to prepare perceptions in the reactor, false to let each active item build its own
+     */
+    public void setParallelPerceptions(boolean parallelPerceptions) {
+        this.parallelPerceptions = parallelPerceptions;
+    }
+
     /**
      * Sets the value of agentImpl
      * @param agentImplementations The new agentImplementations value
@@ -477,6 +725,8 @@ public class Environment {
      */
     protected void setWorlds(List<World<?>> worlds) {
         this.worlds = worlds;
+        worldsByClass.clear();
+        worlds.forEach(w -> worldsByClass.putIfAbsent(w.getClass(), w));
     }
 
     /**
@@ -485,36 +735,44 @@ public class Environment {
      */
     public void addActiveItem(ActiveItem<?> aItem) {
         aItems.add(aItem);
+        aItemsByID.put(aItem.getID(), aItem);
+        updateActiveItemIDs();
     }
 
     /**
      * Get all active items in this Environment
-     * @return an ArrayList of ActiveItems
+     * @return an unmodifiable view on the ActiveItems
      */
     public Collection<ActiveItem<?>> getActiveItems() {
-        return new ArrayList<>(aItems);
+        return Collections.unmodifiableList(aItems);
     }
 
     /**
      * Returns the IDs of all the Active Items in the Environment.
-     * @return An array containing the ID's of all the ActiveItems in this
-     *         Environment.
+     * @return An unmodifiable list containing the ID's of all the ActiveItems in this
+     *         Environment. The same list is returned until an active item is added or removed.
      */
     public List<ActiveItemID> getActiveItemIDs() {
-        return this.getActiveItems().stream()
-            .map(ActiveItem::getID)
-            .collect(Collectors.toList());
+        return aItemIDs;
+    }
+
+    private void updateActiveItemIDs() {
+        aItemIDs = aItems.stream().map(ActiveItem::getID).toList();
     }
 
 
     public ActiveItem<?> getActiveItem(ActiveItemID id) {
-        return this.getActiveItems().stream()
-            .filter(i -> i.getID() == id)
-            .findFirst().orElseThrow();
+        ActiveItem<?> aItem = aItemsByID.get(id);
+        if (aItem == null) {
+            throw new NoSuchElementException(String.format("No ActiveItem found by ID %d", id.getID()));
+        }
+        return aItem;
     }
 
     public void removeActiveItem(ActiveItem<?> aItem) {
         aItems.remove(aItem);
+        aItemsByID.remove(aItem.getID(), aItem);
+        updateActiveItemIDs();
     }
 
     public static int chebyshevDistance(Coordinate pos1, Coordinate pos2) {
@@ -3,21 +3,38 @@ package environment;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.Queue;
+import java.util.concurrent.Executor;
 
 public abstract class Handler<T extends ToHandle> implements Runnable {
 
     protected final Queue<T> inbox;
     protected int nbInInBox;
     protected final Object dummy = new Object();
-    protected boolean suspendRequested;
-    protected boolean running;
+    protected volatile boolean suspendRequested;
+    protected volatile boolean running;
+    private final PooledActivation activation;
 
     public Handler() {
+        this(null);
+    }
+
+    /**
+     * Initializes a new Handler with an empty inbox.
+     *
+     * @param executor The executor that processes the inbox, or null to process it on a thread of its own.
+     */
+    public Handler(Executor executor) {
         inbox = new LinkedList<>();
         nbInInBox = 0;
-        Thread t = new Thread(this);
         suspendRequested = true;
-        t.start();
+        if (executor == null) {
+            activation = null;
+            Thread t = new Thread(this);
+            t.start();
+        } else {
+            running = true;
+            activation = new PooledActivation(executor, this::isReady, this::monitorIncomingToBeHandled);
+        }
     }
 
     synchronized void deposit(T toBeHandled) {
@@ -50,12 +67,30 @@ public abstract class Handler<T extends ToHandle> implements Runnable {
         }
     }
 
+    /**
+     * Returns whether this Handler can process its inbox when it runs on an executor.
+     */
+    protected boolean isReady() {
+        return running && !suspendRequested;
+    }
+
+    /**
+     * Returns whether this Handler runs on an executor instead of on a thread of its own.
+     */
+    boolean isPooled() {
+        return activation != null;
+    }
+
     protected void requestSuspend() {
         suspendRequested = true;
     }
 
     void requestResume() {
         suspendRequested = false;
+        if (activation != null) {
+            activation.resume();
+            return;
+        }
         synchronized (dummy) {
             dummy.notify();
         }
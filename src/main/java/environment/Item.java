@@ -1,5 +1,7 @@
 package environment;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import gui.video.Drawer;
 
 /**
@@ -17,6 +19,16 @@ abstract public class Item<T extends Representation> implements Representable<T>
      */
     private int y;
 
+    /**
+     * The number of times this item changed in a way that shows in its representation
+     */
+    private final AtomicInteger changes = new AtomicInteger();
+
+    /**
+     * The last representation made of this item, together with the value of 'changes' before it was made
+     */
+    private volatile CachedRepresentation<T> representation;
+
     /**
      * Initializes a new Item instance
      *
@@ -37,6 +49,7 @@ abstract public class Item<T extends Representation> implements Representable<T>
     public void moveTo(int x, int y) {
         this.x = x;
         this.y = y;
+        representationChanged();
     }
 
     /**
@@ -59,6 +72,7 @@ abstract public class Item<T extends Representation> implements Representable<T>
      */
     protected void setX(int nx) {
         this.x = nx;
+        representationChanged();
     }
 
     /**
@@ -67,14 +81,38 @@ abstract public class Item<T extends Representation> implements Representable<T>
      */
     protected void setY(int ny) {
         this.y = ny;
+        representationChanged();
     }
 
 
     /**
-     * Gets a representation for this item
+     * Gets a representation for this item. Representations are immutable, so the same one is
+     * shared by all perceivers until this item changes.
      */
     @Override
-    abstract public T getRepresentation();
+    public T getRepresentation() {
+        // read the number of changes first: a change while the representation is made invalidates it
+        int version = changes.get();
+        CachedRepresentation<T> cached = representation;
+        if (cached == null || cached.version() != version) {
+            cached = new CachedRepresentation<>(version, makeRepresentation());
+            representation = cached;
+        }
+        return cached.representation();
+    }
+
+    /**
+     * Makes a new representation of this item as it is now.
+     */
+    abstract protected T makeRepresentation();
+
+    /**
+     * Lets this item know that it changed in a way that shows in its representation,
+     * so the next call of getRepresentation makes a new one.
+     */
+    protected void representationChanged() {
+        changes.incrementAndGet();
+    }
 
     /**
      * Draw this item.
@@ -82,4 +120,9 @@ abstract public class Item<T extends Representation> implements Representable<T>
      */
     abstract public void draw(Drawer drawer);
 
+
+    /**
+     * A representation of an item, made when the item had changed 'version' times.
+     */
+    private record CachedRepresentation<T>(int version, T representation) {}
 }
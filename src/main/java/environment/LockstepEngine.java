@@ -0,0 +1,160 @@
+package environment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.logging.Logger;
+
+import com.google.common.eventbus.EventBus;
+
+import support.ActionOutcome;
+import support.CommunicationOutcome;
+import support.Influence;
+import support.Outcome;
+import util.event.RunAbortedEvent;
+
+/**
+ * Drives all active items of an environment in lockstep, as an alternative to the handshake between the AgentImp threads,
+ * the Collector, its Spheres and the handler threads.
+ *
+ * Every phase of the action cycle is executed for all active items as one parallel batch on a ForkJoinPool. Joining the
+ * batch is the barrier between phases. The outcomes of a batch are then dealt with like one full sphere holding every active
+ * item, which is what central synchronization produces: mails are delivered by the PostalService, influences are processed by
+ * the Reactor, and all items move on to their next phase if every outcome votes for it.
+ *
+ * If a phase fails, the engine stops and throws a RunAbortedEvent, so that whoever waits for the run to end is released.
+ */
+public class LockstepEngine implements Runnable {
+
+    private final List<ActiveImp> activeImps;
+    private final Map<ActiveItemID, Integer> slots;
+    private final Outcome[] outcomes;
+    private final PostalService postalService;
+    private final Reactor reactor;
+    private final ForkJoinPool pool;
+    private final EventBus eventBus;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    private final Logger logger = Logger.getLogger(LockstepEngine.class.getName());
+
+
+    /**
+     * Initializes a new LockstepEngine.
+     *
+     * @param activeImps    The active items to drive, in the order their outcomes are handed to the handlers.
+     * @param postalService The postal service delivering the mails of communication phases.
+     * @param reactor       The reactor processing the influences of action phases.
+     * @param pool          The pool on which the phases of the active items are executed.
+     * @param eventBus      The event bus on which a failure of the engine is reported.
+     */
+    public LockstepEngine(List<ActiveImp> activeImps, PostalService postalService, Reactor reactor, ForkJoinPool pool, EventBus eventBus) {
+        this.activeImps = activeImps;
+        this.outcomes = new Outcome[activeImps.size()];
+        this.postalService = postalService;
+        this.reactor = reactor;
+        this.pool = pool;
+        this.eventBus = eventBus;
+
+        // Keyed on identity, like the Collector
+        this.slots = new IdentityHashMap<>();
+        for (int i = 0; i < activeImps.size(); i++) {
+            this.slots.put(activeImps.get(i).getActiveItemID(), i);
+        }
+    }
+
+
+    /**
+     * Starts driving the active items on a thread of their own.
+     */
+    public void start() {
+        activeImps.forEach(ActiveImp::awakeInLockstep);
+        running = true;
+        thread = new Thread(this);
+        thread.start();
+    }
+
+    /**
+     * Executes phases until this engine is finished or a phase fails, then cleans up the active items.
+     */
+    public void run() {
+        try {
+            while (running) {
+                executePhase();
+            }
+        } catch (RuntimeException | Error e) {
+            this.logger.severe(String.format("Lockstep phase failed, stopping the engine: %s", e));
+            running = false;
+            RunAbortedEvent abortedEvent = new RunAbortedEvent(this);
+            abortedEvent.setCause(e);
+            this.eventBus.post(abortedEvent);
+        }
+        activeImps.forEach(ActiveImp::cleanup);
+    }
+
+    /**
+     * Stops this engine and waits until the phase it is executing has ended.
+     */
+    public void finish() {
+        running = false;
+        if (thread != null && thread != Thread.currentThread()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Registers the outcome with which an active item concluded its phase.
+     */
+    void collect(Outcome outcome) {
+        outcomes[slots.get(outcome.getAgentID())] = outcome;
+    }
+
+
+    /**
+     * Executes the current phase of every active item in parallel, hands the outcomes to the handlers and activates the next phase.
+     */
+    private void executePhase() {
+        Arrays.fill(outcomes, null);
+
+        List<ForkJoinTask<?>> batch = new ArrayList<>(activeImps.size());
+        for (ActiveImp activeImp : activeImps) {
+            batch.add(ForkJoinTask.adapt(activeImp::executeRound));
+        }
+        pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(batch)));
+
+        boolean next = true;
+        List<Mail> mails = new ArrayList<>();
+        List<Influence> influences = new ArrayList<>();
+        for (Outcome outcome : outcomes) {
+            if (outcome == null) {
+                continue;
+            }
+            next &= outcome.getVoteForContinuingWithNextPhase();
+            if (outcome.toBeHandledBy("PostalService")) {
+                mails.addAll(Arrays.asList(((CommunicationOutcome) outcome).getMailBuffer().getMails()));
+            } else if (outcome.toBeHandledBy("Reactor")) {
+                influences.add(((ActionOutcome) outcome).getInfluence());
+            }
+        }
+
+        if (!mails.isEmpty()) {
+            postalService.deliver(mails.toArray(new Mail[0]));
+        }
+        if (!influences.isEmpty()) {
+            reactor.react(influences.toArray(new Influence[0]));
+        }
+
+        for (ActiveImp activeImp : activeImps) {
+            activeImp.activateNewPhase(next);
+        }
+    }
+}
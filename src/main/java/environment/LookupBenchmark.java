@@ -0,0 +1,150 @@
+package environment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.LogManager;
+import java.util.stream.Collectors;
+
+import environment.world.agent.Agent;
+import environment.world.agent.AgentWorld;
+import environment.world.generator.PacketGeneratorWorld;
+import environment.world.packet.PacketWorld;
+
+/**
+ * A microbenchmark of the lookups of active items, agents and worlds that are done every tick.
+ *
+ * The environment is made as for a run, but its active items are not started. Every simulated tick does,
+ * per active item, the lookup of a perception, the IDs of its candidates for synchronisation, three phase
+ * activations (one per phase) and two world lookups, and per agent the six calls to AgentWorld.getAgent of
+ * an InfStep. This is timed in two ways:
+ * <ul>
+ *     <li>with the linear scans and copied lists these lookups used to do, and</li>
+ *     <li>with the indexed lookups and the shared ID list of the environment.</li>
+ * </ul>
+ * The time per tick is printed for a number of rounds, the first of which include warming up.
+ *
+ * Usage: LookupBenchmark [environment] [ticks per round] [rounds]
+ */
+public class LookupBenchmark {
+
+    // Keeps the results of the lookups alive
+    private static long sink;
+
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        LogManager.getLogManager().getLogger("").setLevel(Level.SEVERE);
+
+        String envFile = args.length > 0 ? args[0] : "factory";
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        ApplicationRunner runner = new ApplicationRunner();
+        runner.setImplementation("wander");
+        runner.setEnvFile(envFile);
+        runner.make(false);
+
+        try {
+            Environment env = runner.getEnvironment();
+            ActiveItemContainer ais = env.getAgentImplementations();
+            List<ActiveItemID> ids = env.getActiveItemIDs();
+            List<ActiveItemID> agentIds = env.getAgentIds();
+            System.out.printf("%s: %d active items, %d agents%n", envFile, ids.size(), agentIds.size());
+
+            for (int round = 1; round <= rounds; round++) {
+                long start = System.nanoTime();
+                for (int t = 0; t < ticks; t++) {
+                    linearTick(env, ais.getActiveImps(), ids, agentIds);
+                }
+                System.out.printf("round %d: linear lookups: %.0f ns per tick%n",
+                        round, (double) (System.nanoTime() - start) / ticks);
+
+                start = System.nanoTime();
+                for (int t = 0; t < ticks; t++) {
+                    indexedTick(env, ais, ids, agentIds);
+                }
+                System.out.printf("round %d: indexed lookups: %.0f ns per tick%n",
+                        round, (double) (System.nanoTime() - start) / ticks);
+            }
+        } finally {
+            runner.finish();
+        }
+    }
+
+    /**
+     * Does the lookups of one tick as they were done before they were indexed.
+     */
+    private static void linearTick(Environment env, List<ActiveImp> imps, List<ActiveItemID> ids, List<ActiveItemID> agentIds) {
+        for (ActiveItemID id : ids) {
+            // the perception of the item, found in a copy of all active items
+            for (ActiveItem<?> item : new ArrayList<>(env.getActiveItems())) {
+                if (item.getID() == id) {
+                    sink += item.getX();
+                    break;
+                }
+            }
+            // the IDs of all other active items, collected anew
+            List<ActiveItemID> candidates = env.getActiveItems().stream()
+                    .map(ActiveItem::getID)
+                    .collect(Collectors.toList()).stream()
+                    .filter(other -> other != id)
+                    .collect(Collectors.toList());
+            sink += candidates.size();
+            // the activation of its three phases
+            for (int phase = 0; phase < 3; phase++) {
+                sink += imps.stream().filter(o -> o.getActiveItemID() == id)
+                        .findFirst().orElseThrow().nbTurn;
+            }
+            // the worlds looked up by the laws and influences
+            sink += findWorld(env, PacketWorld.class).hashCode();
+            sink += findWorld(env, AgentWorld.class).hashCode();
+        }
+        AgentWorld agentWorld = findWorld(env, AgentWorld.class);
+        for (ActiveItemID id : agentIds) {
+            for (int k = 0; k < 6; k++) {
+                sink += agentWorld.getAgents().stream().filter(a -> a.getID() == id)
+                        .findFirst().map(Agent::getX).orElseThrow();
+            }
+        }
+        sink += findWorld(env, PacketGeneratorWorld.class).hashCode();
+    }
+
+    /**
+     * Does the lookups of one tick.
+     */
+    private static void indexedTick(Environment env, ActiveItemContainer ais, List<ActiveItemID> ids, List<ActiveItemID> agentIds) {
+        for (ActiveItemID id : ids) {
+            // the perception of the item
+            sink += env.getActiveItem(id).getX();
+            // the IDs of all active items, shared by all of them
+            sink += env.getActiveItemIDs().size();
+            // the activation of its three phases
+            for (int phase = 0; phase < 3; phase++) {
+                sink += ais.getActiveImp(id).nbTurn;
+            }
+            // the worlds looked up by the laws and influences
+            sink += env.getPacketWorld().hashCode();
+            sink += env.getAgentWorld().hashCode();
+        }
+        for (ActiveItemID id : agentIds) {
+            for (int k = 0; k < 6; k++) {
+                sink += env.getAgentWorld().getAgent(id).getX();
+            }
+        }
+        sink += env.getPacketGeneratorWorld().hashCode();
+    }
+
+    /**
+     * Returns the first world of the given class, searching the worlds in order.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T extends World<?>> T findWorld(Environment env, Class<T> worldClass) {
+        for (World<?> world : env.getWorlds()) {
+            if (world.getClass() == worldClass) {
+                return (T) world;
+            }
+        }
+        return null;
+    }
+}
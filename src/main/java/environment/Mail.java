@@ -1,8 +1,19 @@
 package environment;
 
 
+/**
+ * A mail from one agent to another. Its content is either a String message, for legacy string mails,
+ * or an envelope with a typed binary payload.
+ */
+public record Mail(String from, String to, String message, Envelope envelope) {
+
+    public Mail(String from, String to, String message) {
+        this(from, to, message, null);
+    }
 
-public record Mail(String from, String to, String message) {
+    public Mail(String from, String to, Envelope envelope) {
+        this(from, to, null, envelope);
+    }
 
     public String getFrom() {
         return from;
@@ -12,12 +23,26 @@ public record Mail(String from, String to, String message) {
         return to;
     }
 
+    /**
+     * Get the message of a legacy string mail, or a description of the envelope of other mails.
+     */
     public String getMessage() {
-        return message;
+        return envelope == null ? message : envelope.toString();
+    }
+
+    /**
+     * Get the envelope of the mail, or null if it is a legacy string mail.
+     */
+    public Envelope getEnvelope() {
+        return envelope;
+    }
+
+    public boolean hasEnvelope() {
+        return envelope != null;
     }
 
     public String toString() {
-        return String.format("[Mail - FROM: %s, TO: %s, MESSAGE: %s]", this.from, this.to, this.message);
+        return String.format("[Mail - FROM: %s, TO: %s, MESSAGE: %s]", this.from, this.to, getMessage());
     }
 
 }
@@ -2,10 +2,16 @@ package environment;
 
 
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
 
 import javax.annotation.Nullable;
 
+import environment.world.agent.AgentRep;
 import gui.video.ItemDrawer.LinePoints;
 
 /**
@@ -47,6 +53,19 @@ public class Perception {
 
     private final CellPerception[][] cells;
 
+    /**
+     * The cells of this Perception that contain a Representation of each kind, by slot (see CellPerception),
+     * or null if it has not been built yet. It is built by the first query and dropped whenever this Perception
+     * changes.
+     */
+    private List<List<CellPerception>> index;
+
+    /**
+     * Whether the CellPerceptions of this Perception may be shared with another Perception. If so,
+     * Representations are only added to copies of them.
+     */
+    private boolean sharedCells;
+
 
 
     //--------------------------------------------------------------------------
@@ -74,10 +93,79 @@ public class Perception {
         setOffsetY(offsetY);
     }
 
+    /**
+     *  Initializes a new Perception object with the given cells
+     */
+    private Perception(CellPerception[][] cells, int width, int height, int offsetX, int offsetY) {
+        this.cells = cells;
+        setWidth(width);
+        setHeight(height);
+        setOffsetX(offsetX);
+        setOffsetY(offsetY);
+    }
+
     //--------------------------------------------------------------------------
     //		INSPECTORS
     //--------------------------------------------------------------------------
 
+    /**
+     * Returns a new Perception of the same area and for the same self, with the same CellPerceptions as this
+     * Perception. Cells set or nullified in one of both Perceptions are not changed in the other, and
+     * Representations added to either one are added to copies of its CellPerceptions.
+     *
+     * @return The copy
+     */
+    Perception copy() {
+        CellPerception[][] copied = new CellPerception[width][];
+        for (int i = 0; i < width; i++) {
+            copied[i] = cells[i].clone();
+        }
+        Perception result = new Perception(copied, width, height, offsetX, offsetY);
+        result.setSelfX(selfX);
+        result.setSelfY(selfY);
+        result.sharedCells = true;
+        this.sharedCells = true;
+        return result;
+    }
+
+    /**
+     * Returns a new Perception of the same area and for the same self, that shares the CellPerceptions of the
+     * cells in 'visible' with this Perception. The other cells are left out (null).
+     *
+     * @param  visible  The visible cells, where the cell at (i, j) has index j * getWidth() + i
+     * @return The restricted Perception
+     */
+    public Perception restrictTo(BitSet visible) {
+        return restrictTo(visible, null);
+    }
+
+    /**
+     * Returns a new Perception of the same area and for the same self, with only the cells in 'visible' and,
+     * on those cells, only the Representations that are perceivable. CellPerceptions of which all
+     * Representations are perceivable are shared with this Perception; this Perception is not changed.
+     *
+     * @param  visible      The visible cells, where the cell at (i, j) has index j * getWidth() + i
+     * @param  perceivable  Whether a Representation on a visible cell is perceivable, or null if all are
+     * @return The restricted Perception
+     */
+    public Perception restrictTo(BitSet visible, @Nullable BiPredicate<CellPerception, Representation> perceivable) {
+        CellPerception[][] restricted = new CellPerception[width][height];
+        for (int i = 0; i < width; i++) {
+            for (int j = 0; j < height; j++) {
+                CellPerception cell = cells[i][j];
+                if (cell != null && visible.get(j * width + i)) {
+                    restricted[i][j] = perceivable == null ? cell : cell.filter(rep -> perceivable.test(cell, rep));
+                }
+            }
+        }
+        Perception result = new Perception(restricted, width, height, offsetX, offsetY);
+        result.setSelfX(selfX);
+        result.setSelfY(selfY);
+        result.sharedCells = true;
+        this.sharedCells = true;
+        return result;
+    }
+
 
     /**
      * Gets a CellPerception from this Perception using absolute coordinates
@@ -156,6 +244,114 @@ public class Perception {
     }
 
 
+    /**
+     * Returns the cells of this Perception that contain a Representation of the given type,
+     * column by column.
+     *
+     * @param  type  The type of Representation
+     * @return An unmodifiable list of the cells containing a Representation of 'type'
+     */
+    public List<CellPerception> getCellsWith(Class<? extends Representation> type) {
+        int slot = CellPerception.getSlot(type);
+        if (slot < 0) {
+            // not a kind of its own, look at every cell
+            List<CellPerception> result = new ArrayList<>();
+            for (int i = 0; i < width; i++) {
+                for (int j = 0; j < height; j++) {
+                    CellPerception cell = cells[i][j];
+                    if (cell != null && cell.getRepOfType(type) != null) {
+                        result.add(cell);
+                    }
+                }
+            }
+            return Collections.unmodifiableList(result);
+        }
+        List<CellPerception> candidates = getIndex().get(slot);
+        if (CellPerception.isKind(type)) {
+            return Collections.unmodifiableList(candidates);
+        }
+        return candidates.stream()
+                .filter(cell -> cell.getRepOfType(type) != null)
+                .toList();
+    }
+
+    /**
+     * Returns the Representation of the given type that is nearest to the self of this Perception.
+     *
+     * @param  type  The type of Representation
+     * @return The nearest Representation of 'type', if any
+     */
+    public <T extends Representation> Optional<T> getNearest(Class<T> type) {
+        return getNearest(type, rep -> true);
+    }
+
+    /**
+     * Returns the Representation of the given type that satisfies the given condition (e.g. has
+     * a given color) and is nearest to the self of this Perception. Of equally near Representations,
+     * the first one in the order of getCellsWith is returned.
+     *
+     * @param  type       The type of Representation
+     * @param  condition  The condition the Representation has to satisfy
+     * @return The nearest Representation of 'type' satisfying 'condition', if any
+     */
+    public <T extends Representation> Optional<T> getNearest(Class<T> type, Predicate<? super T> condition) {
+        int x = getOffsetX() + getSelfX();
+        int y = getOffsetY() + getSelfY();
+        T nearest = null;
+        int nearestDistance = Integer.MAX_VALUE;
+        for (CellPerception cell : getCellsWith(type)) {
+            T rep = cell.getRepOfType(type);
+            int d = distance(x, y, cell.getX(), cell.getY());
+            if (d < nearestDistance && condition.test(rep)) {
+                nearest = rep;
+                nearestDistance = d;
+            }
+        }
+        return Optional.ofNullable(nearest);
+    }
+
+    /**
+     * Returns the AgentReps in this Perception, except for the one of the self.
+     *
+     * @return The AgentReps of the other agents in view, column by column
+     */
+    public List<AgentRep> getVisibleAgents() {
+        List<AgentRep> agents = new ArrayList<>();
+        for (CellPerception cell : getCellsWith(AgentRep.class)) {
+            if (cell.getX() != getOffsetX() + getSelfX() || cell.getY() != getOffsetY() + getSelfY()) {
+                agents.add(cell.getRepOfType(AgentRep.class));
+            }
+        }
+        return agents;
+    }
+
+    /**
+     * Returns the index of this Perception, building it first if necessary.
+     */
+    private List<List<CellPerception>> getIndex() {
+        List<List<CellPerception>> result = index;
+        if (result == null) {
+            result = new ArrayList<>(CellPerception.getNbSlots());
+            for (int slot = 0; slot < CellPerception.getNbSlots(); slot++) {
+                result.add(new ArrayList<>());
+            }
+            for (int i = 0; i < width; i++) {
+                for (int j = 0; j < height; j++) {
+                    CellPerception cell = cells[i][j];
+                    if (cell == null) {
+                        continue;
+                    }
+                    for (int kinds = cell.getKinds(); kinds != 0; kinds &= kinds - 1) {
+                        result.get(Integer.numberOfTrailingZeros(kinds)).add(cell);
+                    }
+                }
+            }
+            index = result;
+        }
+        return result;
+    }
+
+
 
 
     /**
@@ -264,6 +460,7 @@ public class Perception {
      */
     public void setCellPerceptionAt(int x, int y, CellPerception cell) {
         cells[x][y] = cell;
+        cellsChanged();
     }
 
     /**
@@ -391,8 +588,50 @@ public class Perception {
 
 
 
+    /**
+     * Moves this Perception to the given offsets, keeping its size. The CellPerceptions of cells that
+     * are in view both before and after are kept; the cells that come into view are new and empty,
+     * so they can be filled without changing any other Perception.
+     *
+     * @param  newOffsetX  The new horizontal offset
+     * @param  newOffsetY  The new vertical offset
+     * @return The CellPerceptions of the cells that came into view
+     */
+    List<CellPerception> moveTo(int newOffsetX, int newOffsetY) {
+        int dx = newOffsetX - offsetX;
+        int dy = newOffsetY - offsetY;
+        if (dx == 0 && dy == 0) {
+            return List.of();
+        }
+        CellPerception[][] old = new CellPerception[width][];
+        for (int i = 0; i < width; i++) {
+            old[i] = cells[i].clone();
+        }
+        List<CellPerception> entered = new ArrayList<>();
+        for (int i = 0; i < width; i++) {
+            for (int j = 0; j < height; j++) {
+                int oi = i + dx;
+                int oj = j + dy;
+                if (0 <= oi && oi < width && 0 <= oj && oj < height && old[oi][oj] != null) {
+                    cells[i][j] = old[oi][oj];
+                } else {
+                    cells[i][j] = new CellPerception(newOffsetX + i, newOffsetY + j);
+                    entered.add(cells[i][j]);
+                }
+            }
+        }
+        setOffsetX(newOffsetX);
+        setOffsetY(newOffsetY);
+        cellsChanged();
+        return entered;
+    }
+
     public void addRep(int i, int j, Representation rep) {
+        if (sharedCells) {
+            cells[i][j] = cells[i][j].copy();
+        }
         cells[i][j].addRep(rep);
+        cellsChanged();
     }
 
 
@@ -400,5 +639,13 @@ public class Perception {
         try {
             cells[i][j] = null;
         } catch (ArrayIndexOutOfBoundsException ignored) {}
+        cellsChanged();
+    }
+
+    /**
+     * Drops the index of this Perception. To be called when its CellPerceptions are changed directly.
+     */
+    void cellsChanged() {
+        index = null;
     }
 }
@@ -3,10 +3,13 @@ package environment;
 import java.io.FileInputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 import environment.law.PerceptionLaw;
+import environment.law.PerceptionLawPipeline;
 import util.Variables;
 
 /**
@@ -20,6 +23,21 @@ public class PerceptionReactor {
     private Environment env;
     private final List<PerceptionLaw> laws;
 
+    /**
+     * The laws in 'laws', ready to be enforced
+     */
+    private PerceptionLawPipeline pipeline;
+
+    /**
+     * The last perception of every active item (before the perception laws are enforced), together with
+     * the position in the change journal at which it was up to date.
+     * Active items can perceive at the same time, but each one only uses its own entry.
+     * Cached perceptions are never handed out themselves, only copies of them. Their CellPerceptions are
+     * shared with those copies, so a cell that changed is replaced by a new CellPerception rather than
+     * filled again.
+     */
+    private final Map<ActiveItemID, CachedPerception> cache;
+
     private final Logger logger = Logger.getLogger(PerceptionReactor.class.getName());
 
     /**
@@ -30,6 +48,7 @@ public class PerceptionReactor {
     public PerceptionReactor(Environment environ) {
         setEnvironment(environ);
         this.laws = new ArrayList<>();
+        this.cache = new ConcurrentHashMap<>();
         loadLaws();
     }
 
@@ -73,11 +92,13 @@ public class PerceptionReactor {
                 PerceptionLaw pLaw = (PerceptionLaw) Class.forName(found.get(i))
                         .getDeclaredConstructor()
                         .newInstance();
+                pLaw.setEnvironment(env);
                 laws.add(pLaw);
             } catch (Exception e) {
                 this.logger.severe("Error setting perceptionlaws");
             }
         }
+        pipeline = new PerceptionLawPipeline(laws);
     }
 
     /**
@@ -109,26 +130,68 @@ public class PerceptionReactor {
         int maxX = Math.min(width - 1, ax + view);
         int minY = Math.max(0, ay - view);
         int maxY = Math.min(height - 1, ay + view);
-        // we initiate a Perception with the right dimensions
-        Perception perception = new Perception(maxX - minX + 1, maxY - minY + 1,
-                                         minX, minY);
-        perception.setSelfX(ax - minX);
-        perception.setSelfY(ay - minY);
-        for (World<?> aWorld : env.getWorlds()) {
-            for (int j = minX; j <= maxX; j++) {
+
+        // Changes made while this perception is being built are picked up the next time
+        ChangeJournal journal = env.getChangeJournal();
+        long position = journal.getPosition();
+        CachedPerception cached = cache.computeIfAbsent(item.getID(), id -> new CachedPerception());
+
+        Perception perception;
+        if (cached.perception != null && cached.perception.getWidth() == maxX - minX + 1
+                && cached.perception.getHeight() == maxY - minY + 1) {
+            // bring the previous perception up to date: the cells that came into view and the cells that changed
+            perception = cached.perception;
+            // the cells that came into view are new, so they are not shared yet
+            for (CellPerception cell : perception.moveTo(minX, minY)) {
+                fill(cell);
+            }
+            // only the cells in view are looked up, however much changed elsewhere
+            for (int change : journal.getChangesSince(cached.position, minX, minY, maxX, maxY)) {
+                int x = change % width;
+                int y = change / width;
+                CellPerception cell = new CellPerception(x, y);
+                fill(cell);
+                perception.setCellPerceptionAt(x - minX, y - minY, cell);
+            }
+            perception.cellsChanged();
+        } else {
+            // we initiate a Perception with the right dimensions
+            perception = new Perception(maxX - minX + 1, maxY - minY + 1,
+                                        minX, minY);
+            for (World<?> aWorld : env.getWorlds()) {
                 for (int k = minY; k <= maxY; k++) {
-                    var potentialItem = aWorld.getItem(j, k);
-                    if (potentialItem != null) {
-                        Representation tempRep = potentialItem.getRepresentation();
-                        perception.addRep(j - minX, k - minY, tempRep);
+                    // only visit the occupied cells of each row
+                    for (int j = aWorld.nextOccupiedInRow(minX, k, maxX); j >= 0; j = aWorld.nextOccupiedInRow(j + 1, k, maxX)) {
+                        var potentialItem = aWorld.getItem(j, k);
+                        if (potentialItem != null) {
+                            Representation tempRep = potentialItem.getRepresentation();
+                            perception.addRep(j - minX, k - minY, tempRep);
 
+                        }
                     }
                 }
             }
         }
+        perception.setSelfX(ax - minX);
+        perception.setSelfY(ay - minY);
+        cached.perception = perception;
+        cached.position = position;
+
+        // we enforce all known laws on a copy of 'perception', so that it is not changed by them or by the perceiving item
+        return enforceLaws(perception.copy());
+    }
 
-        // we enforce all known laws on 'perception'
-        return enforceLaws(perception);
+    /**
+     * Fills a CellPerception anew with the representations of the items on its cell, in the order of the worlds.
+     */
+    private void fill(CellPerception cell) {
+        cell.clear();
+        for (World<?> aWorld : env.getWorlds()) {
+            var potentialItem = aWorld.getItem(cell.getX(), cell.getY());
+            if (potentialItem != null) {
+                cell.addRep(potentialItem.getRepresentation());
+            }
+        }
     }
 
 
@@ -136,14 +199,20 @@ public class PerceptionReactor {
      *   Enforce all known laws on a given Perception 'perception'.
      *
      *   @param perception The Perception to enforce all perceptionlaws upon
+     *   Consecutive FilteringPerceptionLaws are enforced together, in one pass.
+     *
      *   @return A Perception that is become by enforcing all PerceptionLaws
      *           in 'laws' upon 'perception'
      */
     private Perception enforceLaws(Perception perception) {
-        Perception temp = perception;
-        for (PerceptionLaw law : laws) {
-            temp = law.enforce(temp);
-        }
-        return temp;
+        return pipeline.enforce(perception);
+    }
+
+    /**
+     * The last perception of an active item and the position in the change journal at which it was up to date.
+     */
+    private static class CachedPerception {
+        private Perception perception;
+        private long position;
     }
 }
@@ -0,0 +1,62 @@
+package environment;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Drives a suspendable activity (an ActiveImp, a Handler or the Collector) on a shared Executor instead of on
+ * a dedicated thread. Instead of waking up a parked thread, a resume submits a task to the executor. That task
+ * keeps stepping the activity for as long as it is ready and gives its worker back as soon as the activity suspends.
+ * At most one task is scheduled at any time, so an activity never runs concurrently with itself.
+ *
+ * A step must not block waiting for another activity, since that could take the last worker: an activity that has to
+ * wait returns from its step as not ready, and whatever it waits for resumes it.
+ */
+class PooledActivation {
+
+    private final Executor executor;
+    private final BooleanSupplier ready;
+    private final Runnable step;
+    private final AtomicBoolean scheduled;
+
+
+    /**
+     * Initializes a new PooledActivation.
+     *
+     * @param executor The executor on which the activity is stepped.
+     * @param ready    Whether the activity can take another step (i.e. it is not suspended).
+     * @param step     One iteration of the run loop of the activity.
+     */
+    PooledActivation(Executor executor, BooleanSupplier ready, Runnable step) {
+        this.executor = executor;
+        this.ready = ready;
+        this.step = step;
+        this.scheduled = new AtomicBoolean(false);
+    }
+
+    /**
+     * Schedule the activity on the executor, unless a task for it is already pending or running.
+     */
+    void resume() {
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // The executor was shut down after the run ended, so there is nothing left to step
+                scheduled.set(false);
+            }
+        }
+    }
+
+    private void drain() {
+        do {
+            while (ready.getAsBoolean()) {
+                step.run();
+            }
+            scheduled.set(false);
+            // A resume may have slipped in between the last check and releasing the flag
+        } while (ready.getAsBoolean() && scheduled.compareAndSet(false, true));
+    }
+}
@@ -1,5 +1,6 @@
 package environment;
 
+import java.util.concurrent.Executor;
 import java.util.logging.Logger;
 
 import com.google.common.eventbus.EventBus;
@@ -24,13 +25,30 @@ public class PostalService extends Handler<MailBag> {
      * @param agentImps A reference to the interface of the agentImplementations-package.
      */
     public PostalService(ActiveItemContainer agentImps, EventBus eventBus) {
-        super();
+        this(agentImps, eventBus, null);
+    }
+
+    /**
+     * Initialize a new PostalService whose MailBags are delivered on the given executor.
+     * @param agentImps A reference to the interface of the agentImplementations-package.
+     * @param executor The executor on which MailBags are delivered, or null to deliver them on a thread of its own.
+     */
+    public PostalService(ActiveItemContainer agentImps, EventBus eventBus, Executor executor) {
+        super(executor);
         agentImplementations = agentImps;
         this.eventBus = eventBus;
     }
 
     protected void process(MailBag toBeHandled) {
-        Mail[] mailSet = toBeHandled.getMailSet();
+        deliver(toBeHandled.getMailSet());
+        toBeHandled.getSendingSphere().setHandled(toBeHandled.getNbCorrespondingOutcomes());
+    }
+
+    /**
+     * Deliver the mails <mailSet> in random order into the mailboxes of their addressees.
+     * @param mailSet The mails to be delivered.
+     */
+    void deliver(Mail[] mailSet) {
         boolean[] turns = new boolean[mailSet.length];
         for (int i = 0; i < mailSet.length; i++) {
             Mail toDeliver = mailSet[nextActive(turns)];
@@ -49,7 +67,6 @@ public class PostalService extends Handler<MailBag> {
             this.eventBus.post(se);
         }
         this.logger.fine(String.format("%d mails have been delivered.", mailSet.length));
-        toBeHandled.getSendingSphere().setHandled(toBeHandled.getNbCorrespondingOutcomes());
     }
 
     ActiveItemContainer getAgentImplementations() {
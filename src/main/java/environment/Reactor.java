@@ -3,10 +3,17 @@ package environment;
 import java.io.FileInputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.logging.Logger;
 
 import com.google.common.eventbus.EventBus;
@@ -15,6 +22,7 @@ import environment.law.Law;
 import support.InfSkip;
 import support.Influence;
 import util.Variables;
+import util.event.AgentActionEvent;
 import util.event.GameOverEvent;
 import util.event.WorldProcessedEvent;
 
@@ -29,15 +37,22 @@ public class Reactor extends Handler<InfluenceSet> {
     private final List<Law> laws;
     private final EventBus eventBus;
 
+    /**
+     * The InfluenceSet that was processed when the simulation got paused, of which the sending sphere is only
+     * notified once the simulation is resumed. Only used when this Reactor runs on an executor.
+     */
+    private InfluenceSet pausedSet;
+    private volatile boolean held;
+
     private final Logger logger = Logger.getLogger(Reactor.class.getName());
 
     /**
      * Initializes a new Reactor object
      *
-     * @param environ  the environment which this Reactor is part of
+     * @param environ  the environment which this Reactor is part of (its executor, if any, also runs this Reactor)
      */
     public Reactor(Environment environ, ApplicationRunner applicationRunner, EventBus eventBus) {
-        super();
+        super(environ.getExecutor());
         setEnvironment(environ);
         this.applicationRunner = applicationRunner;
         this.eventBus = eventBus;
@@ -114,12 +129,93 @@ public class Reactor extends Handler<InfluenceSet> {
     protected void process(InfluenceSet toBeHandled) {
         this.logger.fine("Reactor has received an InfluenceSet ------------------------------------");
 
-        var s = toBeHandled.getInfluenceSet();
-        Arrays.sort(s, Comparator.comparingInt(Influence::getPriority));
+        if (!isPooled()) {
+            react(toBeHandled.getInfluenceSet());
+            concludeHandling(toBeHandled);
+            return;
+        }
+
+        // On an executor, a paused simulation must not keep a worker: the set is concluded once it is resumed
+        apply(toBeHandled.getInfluenceSet());
+        publishUpdate();
+        held = true;
+        pausedSet = toBeHandled;
+        if (applicationRunner.checkSuspended(this::resumeAfterPause)) {
+            held = false;
+            pausedSet = null;
+            concludeHandling(toBeHandled);
+        }
+    }
+
+    /**
+     * Concludes the InfluenceSet held while the simulation was paused before processing any other.
+     */
+    @Override
+    public synchronized void monitorIncomingToBeHandled() {
+        InfluenceSet paused = pausedSet;
+        if (paused != null) {
+            pausedSet = null;
+            concludeHandling(paused);
+        } else {
+            super.monitorIncomingToBeHandled();
+        }
+    }
+
+    @Override
+    protected boolean isReady() {
+        return super.isReady() && !held;
+    }
+
+    private void resumeAfterPause() {
+        held = false;
+        requestResume();
+    }
+
+    private void concludeHandling(InfluenceSet handled) {
+        if (running) {
+            handled.getSendingSphere().setHandled(handled.getNbCorrespondingOutcomes());
+        }
+    }
 
-        for (Influence inf : s) {
-            if (inf != null) {
-                process(inf); // process each influence
+    /**
+     * Processes a set of influences in order of priority, then increases the clock and updates
+     * any data that needs to be updated. This is what happens for every InfluenceSet; the
+     * LockstepEngine calls it directly.
+     *
+     * If the environment applies influences in parallel, the influences of each priority level are
+     * processed as a level of their own, after all influences of the previous level.
+     *
+     * If the environment prepares perceptions in parallel, the perceptions of the active items that
+     * sent the influences are built afterwards, from the resulting state of the worlds.
+     *
+     * @param  influences  The influences to process. The array is sorted in place.
+     */
+    void react(Influence[] influences) {
+        apply(influences);
+        update();
+    }
+
+    /**
+     * Processes a set of influences and increases the clock, as react does, but without updating.
+     */
+    private void apply(Influence[] influences) {
+        Arrays.sort(influences, Comparator.comparingInt(Influence::getPriority));
+
+        if (env.isParallelInfluences()) {
+            int from = 0;
+            while (from < influences.length) {
+                int to = from + 1;
+                while (to < influences.length && influences[to].getPriority() == influences[from].getPriority()) {
+                    to++;
+                }
+                processLevel(influences, from, to);
+                from = to;
+            }
+        } else {
+            for (Influence inf : influences) {
+                if (inf != null) {
+                    process(inf); // process each influence
+                }
             }
         }
 
@@ -129,12 +225,89 @@ public class Reactor extends Handler<InfluenceSet> {
 
         this.logger.fine("Reactor processed the InfluenceSet --------------------------------------");
         env.getClock().incrClock();
-        update();
-        if (running) {
-            toBeHandled.getSendingSphere().setHandled(toBeHandled.getNbCorrespondingOutcomes());
+        if (env.isParallelPerceptions()) {
+            // the active items that acted perceive next
+            Set<ActiveItemID> ids = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Influence inf : influences) {
+                if (inf != null) {
+                    ids.add(inf.getID());
+                }
+            }
+            env.preparePerceptions(ids);
         }
     }
 
+    /**
+     * Process the influences of one priority level, partitioned by the cells they affect.
+     * Influences that share a cell (directly or through other influences) form a group that is processed
+     * in order, as it would be by the serial reactor. Groups are processed in parallel. The events of the
+     * effectuated influences are posted afterwards, in order, on the calling thread.
+     * If any influence of the level does not know which cells it affects, the whole level is processed serially.
+     *
+     * @param  influences  The influences, sorted by priority
+     * @param  from        The index of the first influence of the level (inclusive)
+     * @param  to          The index of the last influence of the level (exclusive)
+     */
+    private void processLevel(Influence[] influences, int from, int to) {
+        int n = to - from;
+        int[] parent = new int[n];
+        Map<Coordinate, Integer> owners = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+            List<Coordinate> cells = influences[from + i].getAffectedCells();
+            if (cells == null) {
+                for (int j = from; j < to; j++) {
+                    process(influences[j]);
+                }
+                return;
+            }
+            for (Coordinate cell : cells) {
+                Integer owner = owners.putIfAbsent(cell, i);
+                if (owner != null) {
+                    parent[findGroup(parent, owner)] = findGroup(parent, i);
+                }
+            }
+        }
+
+        Map<Integer, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < n; i++) {
+            groups.computeIfAbsent(findGroup(parent, i), k -> new ArrayList<>()).add(i);
+        }
+        if (groups.size() < 2) {
+            for (int j = from; j < to; j++) {
+                process(influences[j]);
+            }
+            return;
+        }
+
+        Influence[] effectuated = new Influence[n];
+        AgentActionEvent[] events = new AgentActionEvent[n];
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(groups.size());
+        for (List<Integer> group : groups.values()) {
+            tasks.add(ForkJoinTask.adapt(() -> {
+                for (int i : group) {
+                    effectuated[i] = effectuate(influences[from + i], events, i);
+                }
+            }));
+        }
+        ForkJoinPool.commonPool().invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+
+        // Subscribers of the event bus are not thread safe
+        for (int i = 0; i < n; i++) {
+            if (effectuated[i] != null) {
+                effectuated[i].postEvent(events[i]);
+            }
+        }
+    }
+
+    private static int findGroup(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
     /**
      * Process a given Influence 'inf'.
      * First 'inf' will be validated according to all known laws.
@@ -161,6 +334,26 @@ public class Reactor extends Handler<InfluenceSet> {
         }
     }
 
+    /**
+     * Like process(inf), but without posting the resulting event.
+     *
+     * @param  inf     The influence that has to be processed.
+     * @param  events  The array in which the event of the effectuated influence is stored
+     * @param  index   The index at which to store the event
+     * @return The influence that was effectuated (a skip if 'inf' was not valid), or null if effectuating failed
+     */
+    private Influence effectuate(Influence inf, AgentActionEvent[] events, int index) {
+        this.logger.fine(String.format("Reactor is processing %s from agent %d", inf.toString(), inf.getID().getID()));
+        Influence effectuated = validate(inf) ? inf : new InfSkip(inf.getEnvironment(), inf.getID());
+        try {
+            events[index] = effectuated.effectuateEvent();
+            return effectuated;
+        } catch (NullPointerException exc) {
+            this.logger.severe(String.format("Failed to effectuate influence: %s", exc));
+            return null;
+        }
+    }
+
     /**
      * Validate a given Influence 'inf'
      * 'inf' will be passed to all known laws, which are applied to it, when applicable
@@ -184,16 +377,21 @@ public class Reactor extends Handler<InfluenceSet> {
      * @post GUI is repainted
      */
     void update() {
+        publishUpdate();
+        applicationRunner.checkSuspended();
+    }
+
+    /**
+     * Posts the events of a processed world: a WorldProcessedEvent, and a GameOverEvent when all packets are delivered.
+     */
+    private void publishUpdate() {
         this.eventBus.post(new WorldProcessedEvent(this));
 
         if (env.getPacketWorld().getNbPackets() == 0 && 
-                env.getPacketGeneratorWorld().getItems().stream()
-                    .flatMap(List::stream)
-                    .filter(Objects::nonNull)
+                env.getPacketGeneratorWorld().getItemsFlat().stream()
                     .allMatch(g -> g.hasHitThreshold() && g.getAmtPacketsInBuffer() == 0)) {
             this.eventBus.post(new GameOverEvent(this));
         }
-        applicationRunner.checkSuspended();
     }
 
 }
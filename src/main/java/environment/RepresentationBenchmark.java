@@ -0,0 +1,90 @@
+package environment;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.LogManager;
+
+/**
+ * A microbenchmark of the memory allocated for the representations of items and for perceptions.
+ *
+ * The environment is made as for a run, but its active items are not started. Two things are measured with
+ * the allocation counter of the current thread:
+ * <ul>
+ *     <li>the bytes allocated per perception when the perceptions of all active items are built from scratch,
+ *     by a new perception reactor every round, and</li>
+ *     <li>the bytes allocated per call to Item.getRepresentation on items that do not change.</li>
+ * </ul>
+ *
+ * Only methods that existed before representations were cached are used, so the same class can be run on an
+ * older tree to compare.
+ *
+ * Usage: RepresentationBenchmark [environment] [rounds]
+ */
+public class RepresentationBenchmark {
+
+    // Keeps the results of the calls alive
+    private static long sink;
+
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        LogManager.getLogManager().getLogger("").setLevel(Level.SEVERE);
+
+        String envFile = args.length > 0 ? args[0] : "factory";
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        ApplicationRunner runner = new ApplicationRunner();
+        runner.setImplementation("wander");
+        runner.setEnvFile(envFile);
+        runner.make(false);
+
+        try {
+            Environment env = runner.getEnvironment();
+            var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+            List<ActiveItem<?>> activeItems = new ArrayList<>();
+            for (ActiveItemID id : env.getActiveItemIDs()) {
+                activeItems.add(env.getActiveItem(id));
+            }
+            List<Item<?>> items = new ArrayList<>();
+            for (World<?> world : env.getWorlds()) {
+                items.addAll(world.getItemsFlat());
+            }
+            System.out.printf("%s: %d active items, %d items%n", envFile, activeItems.size(), items.size());
+
+            for (int round = 1; round <= rounds; round++) {
+                int repeats = 200;
+                long bytes = threads.getCurrentThreadAllocatedBytes();
+                long start = System.nanoTime();
+                for (int r = 0; r < repeats; r++) {
+                    PerceptionReactor reactor = new PerceptionReactor(env);
+                    for (ActiveItem<?> item : activeItems) {
+                        sink += reactor.getPerception(item).getWidth();
+                    }
+                }
+                long elapsed = System.nanoTime() - start;
+                bytes = threads.getCurrentThreadAllocatedBytes() - bytes;
+                long perceptions = (long) repeats * activeItems.size();
+                System.out.printf("round %d: full perception build: %.0f bytes, %.0f ns per perception%n",
+                        round, (double) bytes / perceptions, (double) elapsed / perceptions);
+            }
+
+            for (int round = 1; round <= rounds; round++) {
+                int repeats = 2000;
+                long bytes = threads.getCurrentThreadAllocatedBytes();
+                for (int r = 0; r < repeats; r++) {
+                    for (Item<?> item : items) {
+                        sink += item.getRepresentation().getX();
+                    }
+                }
+                bytes = threads.getCurrentThreadAllocatedBytes() - bytes;
+                System.out.printf("round %d: getRepresentation: %.1f bytes per call%n",
+                        round, (double) bytes / repeats / items.size());
+            }
+        } finally {
+            runner.finish();
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package environment;
 
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
 import java.util.logging.Logger;
 
 import support.ActionOutcome;
@@ -14,10 +17,17 @@ import support.PlaceHolderOutcome;
  * completed sphere is being dealt with by the environment. If all outcomes are handled by the environment, all AgentImp's involved
  * are called to activate their next action phase and the sphere is cleared (removed from the set of spheres managed by the
  * collector).
+ *
+ * Member outcomes are indexed by the id of their agent, so membership tests are constant time. When spheres are merged, the
+ * absorbed sphere keeps a link to the sphere that absorbed it (union-find), which lets the collector resolve stale entries of
+ * its agent-to-sphere index lazily instead of re-indexing every member.
  */
 public class Sphere {
 
+    private static final int INITIAL_CAPACITY = 8;
+
     private Outcome[] elements;
+    private final Map<ActiveItemID, Integer> positions;
     private int nbElements;
     private int nbDealtWith;
     private int nbHandled;
@@ -28,6 +38,10 @@ public class Sphere {
     private final ActiveItemContainer agentImplementations;
     private final Reactor reactor;
 
+    private Sphere mergedInto;
+    private boolean removed;
+    private int slot;
+
     private final Logger logger = Logger.getLogger(Sphere.class.getName());
 
     /**
@@ -49,7 +63,8 @@ public class Sphere {
         EOPHandler eOPHandler,
         PostalService postalService,
         Reactor reactor) {
-        elements = new Outcome[0];
+        elements = new Outcome[INITIAL_CAPACITY];
+        positions = new IdentityHashMap<>();
         setNbElements(0);
         setNbActed(0);
         nbHandled = 0;
@@ -67,6 +82,9 @@ public class Sphere {
      * @throws IndexOutOfBoundsException index >= getNbElements()
      */
     public Outcome getElementAt(int index) throws IndexOutOfBoundsException {
+        if (index >= getNbElements()) {
+            throw new IndexOutOfBoundsException(index);
+        }
         return elements[index];
     }
 
@@ -76,15 +94,12 @@ public class Sphere {
      * latter.
      */
     public void integrate(Outcome outcome) {
-        if (!containsOutcomeOf(outcome.getAgentID())) {
+        Integer position = positions.get(outcome.getAgentID());
+        if (position == null) {
             addToSphere(outcome);
         } else { // this clause substitutes placeholders by genuine outcomes
-            for (int i = 0; i < getNbElements(); i++) {
-                if (outcome.getAgentID() == getElementAt(i).getAgentID()) {
-                    elements[i] = outcome;
-                    setNbActed(getNbActed() + 1);
-                }
-            }
+            elements[position] = outcome;
+            setNbActed(getNbActed() + 1);
         }
         ActiveItemID[] sS = outcome.getSyncSet();
         for (ActiveItemID s : sS) {
@@ -95,19 +110,23 @@ public class Sphere {
     }
 
     /**
-     * Add the Outcome <outcome> to this Sphere.
+     * Add the Outcome <outcome> to this Sphere and register this sphere as the sphere of its agent with the collector.
      * @param outcome The Outcome instance to be added to this Sphere.
      * @post new.getNbElements()==getNbElements()+1
      * @post if outcome.hasActed()
      *       then new.getNbActed()==getNbActed()+1
      */
     public void addToSphere(Outcome outcome) {
-        Outcome[] temp = new Outcome[getNbElements() + 1];
-        for (int i = 0; i < getNbElements(); i++) {
-            temp[i] = getElements()[i];
+        append(outcome);
+        getCollector().indexMember(outcome.getAgentID(), this);
+    }
+
+    private void append(Outcome outcome) {
+        if (getNbElements() == elements.length) {
+            elements = Arrays.copyOf(elements, elements.length * 2);
         }
-        temp[getNbElements()] = outcome;
-        elements = temp;
+        positions.put(outcome.getAgentID(), getNbElements());
+        elements[getNbElements()] = outcome;
         if (outcome.hasActed()) {
             setNbActed(getNbActed() + 1);
         }
@@ -115,18 +134,38 @@ public class Sphere {
     }
 
     /**
-     * Incorporate <other> into this Sphere, i.e. add the outcomes in <other> to this and clear <other>.
+     * Incorporate <other> into this Sphere, i.e. add the outcomes in <other> to this and clear <other>. The members of <other>
+     * are not re-indexed: <other> links to this sphere instead, see getRoot().
      * @param other The Sphere to be incorporated into this sphere.
      * @post Every element formerly in other is now member of this.
-     * @post (new other).getNbElements()==0
+     * @post other.getRoot()==this
      */
     public void incorporate(Sphere other) {
         for (int i = 0; i < other.getNbElements(); i++) {
-            addToSphere(other.getElements()[i]);
+            append(other.getElementAt(i));
         }
+        other.mergedInto = this;
         other.clear();
     }
 
+    /**
+     * Return the sphere this sphere has (transitively) been incorporated into, or this sphere itself if it has not been
+     * incorporated into another one. Links that are followed are shortened to point to the result directly.
+     */
+    Sphere getRoot() {
+        Sphere root = this;
+        while (root.mergedInto != null) {
+            root = root.mergedInto;
+        }
+        Sphere current = this;
+        while (current != root) {
+            Sphere next = current.mergedInto;
+            current.mergedInto = root;
+            current = next;
+        }
+        return root;
+    }
+
     /**
      * Check whether an agent with id <agent> has contributed an outcome to this sphere.
      * @param agent The id or the agent under consideration.
@@ -135,18 +174,11 @@ public class Sphere {
      *         else return false
      */
     public boolean containsOutcomeOf(ActiveItemID agent) {
-        boolean found = false;
-        for (int i = 0; i < getNbElements(); i++) {
-            if (elements[i].getAgentID() == agent) {
-                found = true;
-                break;
-            }
-        }
-        return found;
+        return positions.containsKey(agent);
     }
 
     public Outcome[] getElements() {
-        return elements;
+        return Arrays.copyOf(elements, getNbElements());
     }
 
     public int getNbElements() {
@@ -181,6 +213,22 @@ public class Sphere {
         return getNbHandled() == getNbElements();
     }
 
+    boolean isRemoved() {
+        return removed;
+    }
+
+    void setRemoved() {
+        removed = true;
+    }
+
+    int getSlot() {
+        return slot;
+    }
+
+    void setSlot(int slot) {
+        this.slot = slot;
+    }
+
     // new
     protected Collector getCollector() {
         return collector;
@@ -203,9 +251,7 @@ public class Sphere {
      * @post for i 0..getCollector().getNbSpheres()-1: new.geSpheres()[i] != this
      */
     public void clear() {
-        synchronized (getCollector().getSpheres()) { // mutex with makeNewSphere() !!!!!
-            getCollector().removeSphere(this);
-        }
+        getCollector().removeSphere(this); // synchronized with the processing of outcomes
     }
 
     /**
@@ -285,7 +331,8 @@ public class Sphere {
 
     public void printSphere() {
         this.logger.fine(String.format("\t\tNumber of elements: %d", nbElements));
-        for (Outcome element : elements) {
+        for (int i = 0; i < getNbElements(); i++) {
+            Outcome element = elements[i];
             String message = "\t\t" + element.getAgentID().getID();
             if (element.hasActed()) {
                 message += "\t\thas acted - type: ";
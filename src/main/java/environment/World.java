@@ -1,6 +1,8 @@
 package environment;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
@@ -12,10 +14,16 @@ import com.google.common.eventbus.EventBus;
 
 /**
  * A general world "concept".
+ *
+ * The items of a world are stored in one flat array, indexed by y * width + x, so a row of cells is
+ * contiguous. A bit set keeps track of which cells are occupied, which allows skipping free cells in bulk.
  */
 public abstract class World<T extends Item<?>> {
     
-    protected List<List<T>> items;
+    private Object[] cells;
+    private BitSet occupied;
+    private int width;
+    private int height;
     private Environment env;
     private static final Random rnd = new Random();
     private final EventBus eventBus;
@@ -61,17 +69,43 @@ public abstract class World<T extends Item<?>> {
      * @param x    x coordinate
      * @param y    y coordinate
      * @param item the Item to place in the world
-     * @post	   items[x][y] = item
+     * @post	   getItem(x, y) = item
+     * @throws     IndexOutOfBoundsException if (x, y) is not in this world
      */
     public void putItem(int x, int y, T item) {
-        items.get(x).set(y, item);
+        int index = index(x, y);
+        Object old = cells[index];
+        cells[index] = item;
+        // The reactor may put items on different cells in parallel
+        synchronized (occupied) {
+            occupied.set(index, item != null);
+        }
+        if (env != null) {
+            env.updateCellKinds(x, y, CollisionMatrix.kindOf(old), CollisionMatrix.kindOf(item));
+            env.recordChange(x, y);
+        }
+    }
+
+    /**
+     * Signals that the Item at the given coordinates changed in a way that shows in its representation,
+     * without being replaced. Perceptions of that cell are then brought up to date.
+     *
+     * @param x    x coordinate
+     * @param y    y coordinate
+     * @throws     IndexOutOfBoundsException if (x, y) is not in this world
+     */
+    public void touch(int x, int y) {
+        index(x, y);
+        if (env != null) {
+            env.recordChange(x, y);
+        }
     }
 
     /**
      * Places a given Item at its coordinates
      *
      * @param item the Item to place in the world
-     * @post  items[item.getX()][item.getY()] = item
+     * @post  getItem(item.getX(), item.getY()) = item
      */
     protected void putItem(T item) {
         this.putItem(item.getX(), item.getY(), item);
@@ -92,15 +126,19 @@ public abstract class World<T extends Item<?>> {
      */
     public void initialize(int width, int height, Environment env) {
         setEnvironment(env);
-        items = new ArrayList<>();
+        this.width = width;
+        this.height = height;
+        this.cells = new Object[width * height];
+        this.occupied = new BitSet(width * height);
+    }
 
-        for (int i = 0; i < width; i++) {
-            List<T> row = new ArrayList<>();
-            for (int j = 0; j < height; j++) {
-                row.add(null);
-            }
-            items.add(row);
-        }
+    /**
+     * Returns the index of the given coordinates in the flat array of cells.
+     *
+     * @throws IndexOutOfBoundsException if (x, y) is not in this world
+     */
+    private int index(int x, int y) {
+        return Objects.checkIndex(y, height) * width + Objects.checkIndex(x, width);
     }
 
     /**
@@ -127,10 +165,39 @@ public abstract class World<T extends Item<?>> {
     /**
      * Returns all Items in this world
      *
-     * @return A 2d list containing all Items in this world
+     * @return A 2d list view on the Items in this world, indexed as [x][y].
+     *         Setting an element of the view puts an Item in this world.
      */
     public List<List<T>> getItems() {
-        return items;
+        return new AbstractList<>() {
+            @Override
+            public List<T> get(int x) {
+                Objects.checkIndex(x, width);
+                return new AbstractList<>() {
+                    @Override
+                    public T get(int y) {
+                        return getItem(x, y);
+                    }
+
+                    @Override
+                    public T set(int y, T item) {
+                        T old = getItem(x, y);
+                        putItem(x, y, item);
+                        return old;
+                    }
+
+                    @Override
+                    public int size() {
+                        return height;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return width;
+            }
+        };
     }
 
 
@@ -143,18 +210,40 @@ public abstract class World<T extends Item<?>> {
     public List<List<T>> getItemsCopied() {
         var result = new ArrayList<List<T>>();
 
-        for (var l : items) {
+        for (var l : getItems()) {
             result.add(new ArrayList<>(l));
         }
 
         return result;
     }
 
+    /**
+     * Returns the Items in this world, without the free cells.
+     *
+     * @return A list containing all Items in this world, row by row
+     */
     public List<T> getItemsFlat() {
-        return this.getItems().stream()
-                .flatMap(List::stream)
-                .filter(Objects::nonNull)
-                .toList();
+        var result = new ArrayList<T>();
+        int[] indices;
+        synchronized (occupied) {
+            indices = occupied.stream().toArray();
+        }
+        for (int index : indices) {
+            T item = itemAt(index);
+            if (item != null) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of Items in this world.
+     */
+    public int getNbItems() {
+        synchronized (occupied) {
+            return occupied.cardinality();
+        }
     }
 
 
@@ -163,11 +252,49 @@ public abstract class World<T extends Item<?>> {
      *
      * @param x    x coordinate
      * @param y    y coordinate
-     * @return     items[x][y]
+     * @return     The Item at (x, y), or null if that cell is free
+     * @throws     IndexOutOfBoundsException if (x, y) is not in this world
      */
     @Nullable
     public T getItem(int x, int y) {
-        return items.get(x).get(y);
+        return itemAt(index(x, y));
+    }
+
+    @SuppressWarnings("unchecked")
+    private T itemAt(int index) {
+        return (T) cells[index];
+    }
+
+    /**
+     * Checks whether there is an Item at the given coordinate in this world
+     *
+     * @param x    x coordinate
+     * @param y    y coordinate
+     * @return     getItem(x, y) != null
+     */
+    public boolean isOccupied(int x, int y) {
+        return cells[index(x, y)] != null;
+    }
+
+    /**
+     * Returns the first occupied cell in row y of this world, looking from column x up to and including column maxX.
+     * Free cells are skipped a word of the occupancy bit set at a time, so iterating over the items in an area goes as follows:
+     * <pre>
+     * for (int i = world.nextOccupiedInRow(minX, y, maxX); i >= 0; i = world.nextOccupiedInRow(i + 1, y, maxX))
+     * </pre>
+     *
+     * @param x    The first column to look at
+     * @param y    The row to look in
+     * @param maxX The last column to look at
+     * @return     The x coordinate of the first occupied cell, or -1 if all of these cells are free
+     */
+    public int nextOccupiedInRow(int x, int y, int maxX) {
+        if (x > maxX) {
+            return -1;
+        }
+        int rowStart = index(0, y);
+        int next = occupied.nextSetBit(rowStart + x);
+        return next >= 0 && next <= rowStart + maxX ? next - rowStart : -1;
     }
 
     /**
@@ -196,13 +323,8 @@ public abstract class World<T extends Item<?>> {
      * @return True if the coordinates are valid, false otherwise
      */
     public boolean inBounds(int x, int y) {
-        if (items.isEmpty()) {
-            return false;
-        } else if (items.get(0).isEmpty()) {
-            return false;
-        }
-        return x >= 0 && x < items.size() &&
-                y >= 0 && y < items.get(0).size();
+        return x >= 0 && x < width &&
+                y >= 0 && y < height;
     }
 
     /**
@@ -0,0 +1,55 @@
+package environment.law;
+
+import java.util.BitSet;
+import java.util.List;
+
+import environment.CellPerception;
+import environment.Perception;
+import environment.Representation;
+
+/**
+ * An interface for PerceptionLaws that only restrict what can be perceived: they hide cells
+ * and/or Representations, but never change or add any.
+ *
+ * Consecutive FilteringPerceptionLaws are enforced together by a PerceptionLawPipeline, in one
+ * pass over the perception: each of them narrows down a shared mask of visible cells, and the
+ * restricted perception is built only once, at the end.
+ */
+public interface FilteringPerceptionLaw extends PerceptionLaw {
+
+    /**
+     * Hides the cells of 'perception' that cannot be perceived, by clearing their bits in 'visible'.
+     * Bits that are already cleared belong to cells hidden by the laws enforced before this one.
+     *
+     * @param perception The perception this law is enforced on, which must not be changed
+     * @param visible    The visible cells, where the cell at (i, j) has index j * perception.getWidth() + i
+     */
+    default void hideCells(Perception perception, BitSet visible) {}
+
+    /**
+     * Checks whether this law filters the Representations on visible cells, i.e. whether
+     * isPerceivable is to be consulted at all.
+     */
+    default boolean filtersRepresentations() {
+        return false;
+    }
+
+    /**
+     * Checks whether the given Representation, on a visible cell of 'perception', can be perceived.
+     *
+     * @param perception The perception this law is enforced on
+     * @param cell       The CellPerception the Representation is on
+     * @param rep        The Representation
+     */
+    default boolean isPerceivable(Perception perception, CellPerception cell, Representation rep) {
+        return true;
+    }
+
+    /**
+     * Enforces this PerceptionLaw on its own on a given Perception 'perception'.
+     */
+    @Override
+    default Perception enforce(Perception perception) {
+        return new PerceptionLawPipeline(List.of(this)).enforce(perception);
+    }
+}
@@ -1,5 +1,6 @@
 package environment.law;
 
+import environment.Environment;
 import environment.Perception;
 
 /**
@@ -13,4 +14,10 @@ public interface PerceptionLaw {
      */
     Perception enforce(Perception perception);
 
+    /**
+     * Sets the environment whose perceptions this PerceptionLaw is enforced on.
+     * Laws that need no information beyond the perception itself can ignore it.
+     */
+    default void setEnvironment(Environment env) {}
+
 }
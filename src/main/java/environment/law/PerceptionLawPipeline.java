@@ -0,0 +1,116 @@
+package environment.law;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.BiPredicate;
+
+import environment.CellPerception;
+import environment.Perception;
+import environment.Representation;
+
+/**
+ * A sequence of PerceptionLaws that are enforced one after the other on a perception.
+ *
+ * Consecutive FilteringPerceptionLaws are fused into one stage: their masks are computed on the
+ * original perception and the restricted perception is built once, without changing the original.
+ * Any other PerceptionLaw is adapted into a stage of its own that calls its enforce method, so
+ * old-style laws keep working (and keep their place in the order of the laws).
+ */
+public class PerceptionLawPipeline {
+
+    private final List<Stage> stages;
+
+
+    /**
+     * Initializes a new PerceptionLawPipeline for the given laws, in the order in which they are enforced.
+     */
+    public PerceptionLawPipeline(List<? extends PerceptionLaw> laws) {
+        this.stages = new ArrayList<>();
+        List<FilteringPerceptionLaw> fused = new ArrayList<>();
+        for (PerceptionLaw law : laws) {
+            if (law instanceof FilteringPerceptionLaw filteringLaw) {
+                fused.add(filteringLaw);
+            } else {
+                if (!fused.isEmpty()) {
+                    stages.add(new FusedStage(fused));
+                    fused = new ArrayList<>();
+                }
+                stages.add(new LawAdapter(law));
+            }
+        }
+        if (!fused.isEmpty()) {
+            stages.add(new FusedStage(fused));
+        }
+    }
+
+    /**
+     * Enforces all laws of this pipeline on a given Perception 'perception'.
+     *
+     * @param perception The Perception to enforce the laws upon
+     * @return The resulting Perception, or 'perception' itself if there are no laws
+     */
+    public Perception enforce(Perception perception) {
+        Perception temp = perception;
+        for (Stage stage : stages) {
+            temp = stage.enforce(temp);
+        }
+        return temp;
+    }
+
+
+    /**
+     * A step of a PerceptionLawPipeline.
+     */
+    private interface Stage {
+        Perception enforce(Perception perception);
+    }
+
+    /**
+     * An old-style PerceptionLaw, enforced on its own.
+     */
+    private record LawAdapter(PerceptionLaw law) implements Stage {
+        @Override
+        public Perception enforce(Perception perception) {
+            return law.enforce(perception);
+        }
+    }
+
+    /**
+     * A number of FilteringPerceptionLaws, enforced in one pass.
+     */
+    private static class FusedStage implements Stage {
+
+        private final List<FilteringPerceptionLaw> laws;
+        private final List<FilteringPerceptionLaw> repFilters;
+
+        FusedStage(List<FilteringPerceptionLaw> laws) {
+            this.laws = List.copyOf(laws);
+            this.repFilters = laws.stream()
+                    .filter(FilteringPerceptionLaw::filtersRepresentations)
+                    .toList();
+        }
+
+        @Override
+        public Perception enforce(Perception perception) {
+            BitSet visible = new BitSet(perception.getWidth() * perception.getHeight());
+            visible.set(0, perception.getWidth() * perception.getHeight());
+            for (FilteringPerceptionLaw law : laws) {
+                law.hideCells(perception, visible);
+            }
+
+            BiPredicate<CellPerception, Representation> perceivable = null;
+            if (!repFilters.isEmpty()) {
+                perceivable = (cell, rep) -> {
+                    for (FilteringPerceptionLaw law : repFilters) {
+                        if (!law.isPerceivable(perception, cell, rep)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                };
+            }
+            return perception.restrictTo(visible, perceivable);
+        }
+    }
+}
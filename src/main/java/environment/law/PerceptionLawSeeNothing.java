@@ -1,6 +1,8 @@
 package environment.law;
 
+import environment.CellPerception;
 import environment.Perception;
+import environment.Representation;
 import environment.world.agent.AgentRep;
 
 /**
@@ -9,32 +11,32 @@ import environment.world.agent.AgentRep;
  * perceive every Item as a Representation, which has no informative
  * value for them, except that there is 'something'.
  */
-public class PerceptionLawSeeNothing implements PerceptionLaw {
+public class PerceptionLawSeeNothing implements FilteringPerceptionLaw {
 
     /**
      * Initializes a new PerceptionLawSeeNothing instance
      */
     public PerceptionLawSeeNothing() {}
 
+    @Override
+    public boolean filtersRepresentations() {
+        return true;
+    }
+
     /**
-     * Enforces this PerceptionLaw on a given Perception 'perception'.
-     * All CellPerceptions in 'perception' will be emptied, thus removing
+     * All CellPerceptions in the perception will be emptied, thus removing
      * any specific information about items (representations) on them.
+     * Only the AgentRep of the perceiving agent itself remains.
      *
      * @param perception The perception on which we will enforce this perception law
-     * @return     A perception containing only unspecified 'Representations'.
-     *             The only information that will remain in these representations
-     *             are the coordinates of the Items they represent, nothing further.
+     * @param cell       The CellPerception the Representation is on
+     * @param rep        The Representation
+     * @return     True if 'rep' is the AgentRep on the position of the perceiving agent, false otherwise.
      */
-    public Perception enforce(Perception perception) {
-        Perception newPerception = new Perception(perception.getWidth(), perception.getHeight(),
-                                            perception.getOffsetX(), perception.getOffsetY());
-        int aX = perception.getSelfX();
-        int aY = perception.getSelfY();
-
-        newPerception.getCellAt(aX, aY).addRep(perception.getCellAt(aX, aY).getRepOfType(AgentRep.class));
-        newPerception.setSelfX(aX);
-        newPerception.setSelfY(aY);
-        return newPerception;
+    @Override
+    public boolean isPerceivable(Perception perception, CellPerception cell, Representation rep) {
+        return rep instanceof AgentRep
+                && cell.getX() == perception.getOffsetX() + perception.getSelfX()
+                && cell.getY() == perception.getOffsetY() + perception.getSelfY();
     }
 }
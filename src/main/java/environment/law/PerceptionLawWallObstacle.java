@@ -1,88 +1,197 @@
 package environment.law;
 
+import java.util.BitSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import environment.CellPerception;
+import environment.Environment;
 import environment.Perception;
 import environment.world.wall.WallRep;
+import environment.world.wall.WallWorld;
 
 /**
  * A PerceptionLaw for not allowing agents to perceive Items that are
  * situated behind a Wall Item from their point of view. They will only
  * receive general information about these Items, such as their
  * coordinates.
+ *
+ * What is visible is computed by recursive shadow casting over the perceived area, in each of the
+ * eight octants around the agent. Walls that are see-through cast no shadow. Since walls hardly ever
+ * change, the visible cells are cached per position of the agent in the world and view area. The cache is
+ * emptied whenever the WallWorld changes, so it only holds the areas perceived since the last change of the walls.
  */
-public class PerceptionLawWallObstacle implements PerceptionLaw {
+public class PerceptionLawWallObstacle implements FilteringPerceptionLaw {
+
+    /**
+     * Multipliers that transform the coordinates of the first octant to those of each of the eight octants.
+     */
+    private static final int[][] OCTANTS = {
+        { 1,  0,  0, -1, -1,  0,  0,  1 },
+        { 0,  1, -1,  0,  0, -1,  1,  0 },
+        { 0,  1,  1,  0,  0, -1, -1,  0 },
+        { 1,  0,  0,  1, -1,  0,  0, -1 },
+    };
+
+    private Environment env;
+    private final Map<Area, VisibleCells> cache;
+    private volatile long cacheVersion = -1;
+
 
     /**
      * Initializes a new PerceptionLawWallObstacle instance
      */
-    public PerceptionLawWallObstacle() {}
+    public PerceptionLawWallObstacle() {
+        this.cache = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public void setEnvironment(Environment env) {
+        this.env = env;
+        this.cache.clear();
+        this.cacheVersion = -1;
+    }
 
     /**
-     * Enforces this PerceptionLaw on a given Perception 'perception'.
-     * All Representations that are situated behind a WallRep relative to the
-     * perceiving agent should be generalised as 'Representations', thus removing
-     * any specific information about them.
-     *     
-     * Only works for the WallWorld show in the presentation of this thesis.
-     * This algorithm is purely made for this demonstration.
-     * To get a realistic effect a much (much) more complicated algorithm
-     * is needed.
+     * Hides all cells that are situated behind a WallRep relative to the
+     * perceiving agent, thus removing any specific information about the
+     * Representations on them.
      *
      * @param perception The perception on which we will enforce this perception law
-     * @return     A perception containing only unspecified 'Representations'
-     *             for those representations that are situated behind a wall
-     *             relative to the perceiving agent.
+     * @param visible    The visible cells, of which the ones behind a wall are cleared
+     */
+    @Override
+    public void hideCells(Perception perception, BitSet visible) {
+        visible.and(getVisibleCells(perception));
+    }
+
+    /**
+     * Returns the visible cells of the given perception, taken from the cache if the walls did not change since.
      */
-    public Perception enforce(Perception perception) {
-        Perception newPerception = new Perception(perception.getWidth(), perception.getHeight(),
-                                            perception.getOffsetX(), perception.getOffsetY());
-        int aX = perception.getSelfX();
-        int aY = perception.getSelfY();
-        for (int tX = 0; tX < perception.getWidth(); tX++) {
-            for (int tY = 0; tY < perception.getHeight(); tY++) {
-                if (obstructed(perception, tX, tY)) {
-                    newPerception.nullifyCellAt(tX, tY);
-                } else {
-                    newPerception.setCellPerceptionAt(tX, tY, perception.getCellAt(tX, tY));
+    private BitSet getVisibleCells(Perception perception) {
+        WallWorld walls = getWallWorld();
+        if (walls == null) {
+            return castShadows(perception);
+        }
+        long version = walls.getVersion();
+        if (version != cacheVersion) {
+            synchronized (cache) {
+                if (version != cacheVersion) {
+                    cache.clear();
+                    cacheVersion = version;
                 }
             }
         }
-        //newPerception.setSelf(perception.getSelf(), aX, aY);
-        newPerception.setSelfX(aX);
-        newPerception.setSelfY(aY);
-        return newPerception;
+        Area area = new Area(perception.getOffsetX(), perception.getOffsetY(), perception.getWidth(),
+                perception.getHeight(), perception.getSelfX(), perception.getSelfY());
+        VisibleCells cached = cache.get(area);
+        // An entry can still be stale if it was computed while the walls changed
+        if (cached == null || cached.version != version) {
+            cached = new VisibleCells(version, castShadows(perception));
+            cache.put(area, cached);
+        }
+        return cached.visible;
     }
 
-    public static boolean obstructed(Perception perception, int x1, int y1) {
-        int x0 = perception.getSelfX();
-        int y0 = perception.getSelfY();
-        int dx =  Math.abs(x1 - x0);
-        int sx = x0 < x1 ? 1 : -1;
-        int dy = -Math.abs(y1 - y0);
-        int sy = y0 < y1 ? 1 : -1;
-        int err = dx + dy;  /* error value e_xy */
-        int e2;
-        while (true) {  /* loop */
-            if (x0 == x1 && y0 == y1) break;
-            e2 = 2 * err;
-            if (e2 >= dy) { /* e_xy+e_x > 0 */
-                if (x0 == x1) break;
-                err += dy;
-                x0 += sx;
-            }
-            if (e2 <= dx) { /* e_xy+e_y < 0 */
-                if (y0 == y1) break;
-                err += dx;
-                y0 += sy;
+    private WallWorld getWallWorld() {
+        if (env == null) {
+            return null;
+        }
+        try {
+            return env.getWallWorld();
+        } catch (RuntimeException exc) {
+            // This environment has no walls
+            return null;
+        }
+    }
+
+    /**
+     * Computes the cells of the given perception that can be seen from its self, by shadow casting.
+     *
+     * @return The visible cells, where the cell at (i, j) has index j * perception.getWidth() + i
+     */
+    static BitSet castShadows(Perception perception) {
+        int width = perception.getWidth();
+        int height = perception.getHeight();
+        int cx = perception.getSelfX();
+        int cy = perception.getSelfY();
+        int radius = Math.max(Math.max(cx, width - 1 - cx), Math.max(cy, height - 1 - cy));
+
+        BitSet visible = new BitSet(width * height);
+        visible.set(cy * width + cx);
+        for (int octant = 0; octant < 8; octant++) {
+            castLight(perception, visible, cx, cy, 1, 1.0, 0.0, radius,
+                    OCTANTS[0][octant], OCTANTS[1][octant], OCTANTS[2][octant], OCTANTS[3][octant]);
+        }
+        return visible;
+    }
+
+    /**
+     * Scans one octant row by row, starting at the given row and between the given slopes. Every
+     * opaque cell narrows the part of the following rows that is lit; the part it shadows is skipped.
+     */
+    private static void castLight(Perception perception, BitSet visible, int cx, int cy, int row,
+                                  double start, double end, int radius, int xx, int xy, int yx, int yy) {
+        if (start < end) {
+            return;
+        }
+        int width = perception.getWidth();
+        int height = perception.getHeight();
+        double newStart = 0.0;
+        for (int distance = row; distance <= radius; distance++) {
+            int dy = -distance;
+            boolean blocked = false;
+            for (int dx = -distance; dx <= 0; dx++) {
+                double leftSlope = (dx - 0.5) / (dy + 0.5);
+                double rightSlope = (dx + 0.5) / (dy - 0.5);
+                if (start < rightSlope) {
+                    continue;
+                } else if (end > leftSlope) {
+                    break;
+                }
+
+                int x = cx + dx * xx + dy * xy;
+                int y = cy + dx * yx + dy * yy;
+                boolean inArea = 0 <= x && x < width && 0 <= y && y < height;
+                if (inArea) {
+                    visible.set(y * width + x);
+                }
+                boolean opaque = inArea && isOpaque(perception.getCellAt(x, y));
+
+                if (blocked) {
+                    if (opaque) {
+                        newStart = rightSlope;
+                    } else {
+                        blocked = false;
+                        start = newStart;
+                    }
+                } else if (opaque && distance < radius) {
+                    blocked = true;
+                    castLight(perception, visible, cx, cy, distance + 1, start, leftSlope, radius, xx, xy, yx, yy);
+                    newStart = rightSlope;
+                }
             }
-            if (0 <= x0 && x0 < perception.getWidth()
-                    && 0 <= y0 && y0 < perception.getHeight()
-                    && (x0 != x1 || y0 != y1)
-                    && perception.getCellAt(x0, y0).getRepOfType(WallRep.class) != null 
-                    && !perception.getCellAt(x0, y0).getRepOfType(WallRep.class).isSeeThrough()) {
-                return true;
+            if (blocked) {
+                break;
             }
         }
-        return false;
     }
 
+    private static boolean isOpaque(CellPerception cell) {
+        if (cell == null) {
+            return false;
+        }
+        WallRep wall = cell.getRepOfType(WallRep.class);
+        return wall != null && !wall.isSeeThrough();
+    }
+
+    /**
+     * The area of a perception in the world and the position of its self in it.
+     */
+    private record Area(int offsetX, int offsetY, int width, int height, int selfX, int selfY) {}
+
+    /**
+     * The visible cells of an area, computed for the given version of the walls.
+     */
+    private record VisibleCells(long version, BitSet visible) {}
 }
@@ -136,11 +136,15 @@ public class Agent extends ActiveItem<AgentRep> {
      */
     public void consume(Packet p) {
         carry = p;
+        representationChanged();
         //when dropped packet, forget orientation (last visited area)
         if (p == null) {
             setLastX(-1);
             setLastY(-1);
         }
+        if (env != null) {
+            env.getAgentWorld().touch(getX(), getY());
+        }
     }
 
     /**
@@ -212,7 +216,7 @@ public class Agent extends ActiveItem<AgentRep> {
      * @return the representation of this agent with a representation of anything it carries
      */
     @Override
-    public AgentRep getRepresentation() {
+    protected AgentRep makeRepresentation() {
         AgentRep aRep = new AgentRep(getX(), getY(), getID(), getName(), this.color);
         this.getCarry().ifPresent(c -> aRep.setCarry(c.getRepresentation()));
         return aRep;
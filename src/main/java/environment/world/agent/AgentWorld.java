@@ -2,7 +2,10 @@ package environment.world.agent;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Logger;
 
 import javax.annotation.Nullable;
@@ -23,6 +26,11 @@ public class AgentWorld extends World<Agent> {
 
     private final List<Agent> agents;
 
+    /**
+     * The agents in this world, keyed on (the identity of) their ID
+     */
+    private final Map<ActiveItemID, Agent> agentsByID;
+
     private final Logger logger = Logger.getLogger(AgentWorld.class.getName());
     
 
@@ -36,6 +44,7 @@ public class AgentWorld extends World<Agent> {
     public AgentWorld(EventBus eventBus) {
         super(eventBus);
         this.agents = new ArrayList<>();
+        this.agentsByID = new IdentityHashMap<>();
     }
 
     //--------------------------------------------------------------------------
@@ -44,10 +53,10 @@ public class AgentWorld extends World<Agent> {
 
     /**
      * Gets an array containing the Agents that are in this AgentWorld
-     * @return This AgentWorld's agents
+     * @return An unmodifiable view on this AgentWorld's agents
      */
     public List<Agent> getAgents() {
-        return this.agents;
+        return Collections.unmodifiableList(this.agents);
     }
 
     /**
@@ -69,14 +78,24 @@ public class AgentWorld extends World<Agent> {
     //--------------------------------------------------------------------------
 
 
-    protected synchronized void loadEnergy(int x, int y, int loadAmount) {
+    /**
+     * Load energy into the agent on the given coordinates, if any.
+     * The resulting event is not posted here but returned, so the reactor can post it on its own thread.
+     *
+     * @param   x           X coordinate of the agent
+     * @param   y           Y coordinate of the agent
+     * @param   loadAmount  The amount of energy to load
+     * @return  The event of the agent loading energy, or null if there is no agent on the coordinates
+     */
+    public synchronized AgentActionEvent loadEnergy(int x, int y, int loadAmount) {
         if (inBounds(x, y) && getItem(x, y) != null) {
             AgentActionEvent event = new AgentActionEvent(this);
             event.setAction(AgentActionEvent.LOAD_ENERGY);
             event.setAgent(getAgent(getItem(x, y).getID()));
             event.setValue(loadAmount);
-            this.getEventBus().post(event);
+            return event;
         }
+        return null;
     }
 
 
@@ -111,9 +130,7 @@ public class AgentWorld extends World<Agent> {
      */
     @Nullable
     public Agent getAgent(ActiveItemID ID) {
-        return this.agents.stream().filter(a -> a.getID() == ID)
-            .findFirst()
-            .orElse(null);
+        return this.agentsByID.get(ID);
     }
 
     /**
@@ -159,6 +176,7 @@ public class AgentWorld extends World<Agent> {
             putItem(agent);
             getEnvironment().addActiveItem(agent);
             agents.add(agent);
+            agentsByID.put(agent.getID(), agent);
         } catch (ClassCastException exc) {
             this.logger.severe("Can only place an Agent in AgentWorld.");
         }
@@ -175,7 +193,10 @@ public class AgentWorld extends World<Agent> {
             }
         }
 
-        agentsToRemove.forEach(this.agents::remove);
+        for (Agent agent : agentsToRemove) {
+            this.agents.remove(agent);
+            this.agentsByID.remove(agent.getID(), agent);
+        }
     }
 
 
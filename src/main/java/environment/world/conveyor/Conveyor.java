@@ -68,7 +68,7 @@ public class Conveyor extends ActiveItem<ConveyorRep> {
      * @return  A Representation of this Destination
      */
     @Override
-    public ConveyorRep getRepresentation() {
+    protected ConveyorRep makeRepresentation() {
         return new ConveyorRep(getX(), getY(), getDirection());
     }
 
@@ -38,6 +38,7 @@ public class CrumbWorld extends World<Crumb> {
         if (getItem(x, y) != null) {
             Crumb crumb = getItem(x, y);
             crumb.setNumber(crumb.getNumber() + number);
+            touch(x, y);
         } else {
             putItem(new Crumb(x, y, number));
         }
@@ -57,6 +58,7 @@ public class CrumbWorld extends World<Crumb> {
             Crumb crumb = getItem(x, y);
             if (crumb.getNumber() > number) {
                 crumb.setNumber(crumb.getNumber() - number);
+                touch(x, y);
             } else {
                 // Remove all crumbs
                 this.free(x, y);
@@ -58,7 +58,7 @@ public class Destination extends Item<DestinationRep> {
      * @return  A Representation of this Destination
      */
     @Override
-    public DestinationRep getRepresentation() {
+    protected DestinationRep makeRepresentation() {
         return new DestinationRep(getX(), getY(), getColor());
     }
 
@@ -51,7 +51,7 @@ public class EnergyStation extends ActiveItem<EnergyStationRep> {
      * @return The representation of this energy station
      */
     @Override
-    public EnergyStationRep getRepresentation() {
+    protected EnergyStationRep makeRepresentation() {
         return new EnergyStationRep(getX(), getY());
     }
 
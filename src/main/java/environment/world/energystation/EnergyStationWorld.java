@@ -1,7 +1,6 @@
 package environment.world.energystation;
 
 import java.util.Collection;
-import java.util.Objects;
 
 import com.google.common.eventbus.EventBus;
 
@@ -30,10 +29,7 @@ public class EnergyStationWorld extends World<EnergyStation> {
      * @return This EnergyStationWorld's number of EnergyStations
      */
     public int getNbEnergyStations() {
-        return (int) this.items.stream()
-                .flatMap(Collection::stream)
-                .filter(Objects::nonNull)
-                .count();
+        return getNbItems();
     }
 
     public String toString() {
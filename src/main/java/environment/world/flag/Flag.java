@@ -46,7 +46,7 @@ public class Flag extends Item<FlagRep> {
      * @return A Flag-representation
      */
     @Override
-    public FlagRep getRepresentation() {
+    protected FlagRep makeRepresentation() {
         return (new FlagRep(getX(), getY(), getColor()));
     }
 
@@ -32,7 +32,7 @@ public class Gradient extends Item<GradientRep> {
      * Get the representation of this Gradient.
      */
     @Override
-    public GradientRep getRepresentation() {
+    protected GradientRep makeRepresentation() {
         return new GradientRep(this.getX(), this.getY(), this.getValue());
     }
 
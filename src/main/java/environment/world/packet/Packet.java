@@ -57,7 +57,7 @@ public class Packet extends Item<PacketRep> {
      * @return A packet-representation
      */
     @Override
-    public PacketRep getRepresentation() {
+    protected PacketRep makeRepresentation() {
         return new PacketRep(getX(), getY(), getColor());
     }
 
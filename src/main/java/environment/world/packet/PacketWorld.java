@@ -1,6 +1,7 @@
 package environment.world.packet;
 
 import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 
 import com.google.common.eventbus.EventBus;
@@ -17,7 +18,10 @@ import util.MyColor;
 public class PacketWorld extends World<Packet> {
 
 
-    private int nbPackets;
+    /**
+     * Updated by influences that the Reactor may effectuate in parallel.
+     */
+    private final AtomicInteger nbPackets;
 
     private final Logger logger = Logger.getLogger(PacketWorld.class.getName());
 
@@ -27,6 +31,7 @@ public class PacketWorld extends World<Packet> {
      */
     public PacketWorld(EventBus eventBus) {
         super(eventBus);
+        this.nbPackets = new AtomicInteger();
     }
 
     /**
@@ -35,7 +40,7 @@ public class PacketWorld extends World<Packet> {
      * @return This AgentWorld's nbPackets
      */
     public int getNbPackets() {
-        return nbPackets;
+        return nbPackets.get();
     }
 
     /**
@@ -54,7 +59,7 @@ public class PacketWorld extends World<Packet> {
     }
 
     private void setNbPackets(int nbPackets) {
-        this.nbPackets = nbPackets;
+        this.nbPackets.set(nbPackets);
     }
 
     /**
@@ -98,7 +103,7 @@ public class PacketWorld extends World<Packet> {
     @Override
     public void placeItem(Packet packet) {
         try {
-            setNbPackets(getNbPackets() + 1);
+            nbPackets.incrementAndGet();
             putItem(packet);
         } catch (ClassCastException exc) {
             this.logger.severe("Can only place an Packet in PacketWorld.");
@@ -106,7 +111,7 @@ public class PacketWorld extends World<Packet> {
     }
 
     public void deliverPacket() {
-        setNbPackets(getNbPackets() - 1);
+        nbPackets.decrementAndGet();
     }
 
 }
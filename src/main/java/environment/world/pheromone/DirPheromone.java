@@ -57,10 +57,15 @@ public class DirPheromone extends Pheromone {
      * @return A Pheromone-representation
      */
     @Override
-    public DirPheromoneRep getRepresentation() {
+    protected DirPheromoneRep makeRepresentation() {
         return new DirPheromoneRep(getX(), getY(), getLifetime(), getTarget());
     }
 
+    @Override
+    public DirPheromoneRep getRepresentation() {
+        return (DirPheromoneRep) super.getRepresentation();
+    }
+
     /**
      * Returns the CellPerception this DirPheromone points at.
      *
@@ -72,5 +77,6 @@ public class DirPheromone extends Pheromone {
 
     public void setTarget(CellPerception target) {
         this.target = target;
+        changed();
     }
 }
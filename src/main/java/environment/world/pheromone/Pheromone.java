@@ -104,6 +104,8 @@ public class Pheromone extends Item<PheromoneRep> implements ClockListener {
             env.getClock().removeListenerDelayed(this);
             env.getPheromoneWorld().free(getX(), getY());
             this.logger.fine("removed");
+        } else {
+            changed();
         }
         this.logger.fine("Received a clock event");
     }
@@ -114,7 +116,7 @@ public class Pheromone extends Item<PheromoneRep> implements ClockListener {
      * @return A Pheromone-representation
      */
     @Override
-    public PheromoneRep getRepresentation() {
+    protected PheromoneRep makeRepresentation() {
         return new PheromoneRep(getX(), getY(), getLifetime());
     }
 
@@ -142,6 +144,7 @@ public class Pheromone extends Item<PheromoneRep> implements ClockListener {
      */
     public void setLifetime(int lifetime) {
         this.lifetime = lifetime;
+        changed();
     }
 
     /**
@@ -154,6 +157,7 @@ public class Pheromone extends Item<PheromoneRep> implements ClockListener {
         if (lifetime > MAX_LIFETIME) {
             lifetime = MAX_LIFETIME;
         }
+        changed();
     }
 
     /**
@@ -164,5 +168,16 @@ public class Pheromone extends Item<PheromoneRep> implements ClockListener {
         if (lifetime > MAX_LIFETIME) {
             lifetime = MAX_LIFETIME;
         }
+        changed();
+    }
+
+    /**
+     * Lets this Pheromone and its world know that its representation changed.
+     */
+    protected void changed() {
+        representationChanged();
+        if (env != null && env.getPheromoneWorld().getItem(getX(), getY()) == this) {
+            env.getPheromoneWorld().touch(getX(), getY());
+        }
     }
 }
@@ -14,10 +14,15 @@ public class GlassWall extends Wall {
     }
 
     @Override
-    public GlassWallRep getRepresentation() {
+    protected GlassWallRep makeRepresentation() {
         return new GlassWallRep(getX(), getY());
     }
 
+    @Override
+    public GlassWallRep getRepresentation() {
+        return (GlassWallRep) super.getRepresentation();
+    }
+
     @Override
     public void draw(Drawer drawer) {
         drawer.drawGlassWall(this);
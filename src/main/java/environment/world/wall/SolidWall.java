@@ -28,10 +28,15 @@ public class SolidWall extends Wall {
      * @return A wall-representation
      */
     @Override
-    public SolidWallRep getRepresentation() {
+    protected SolidWallRep makeRepresentation() {
         return new SolidWallRep(getX(), getY());
     }
 
+    @Override
+    public SolidWallRep getRepresentation() {
+        return (SolidWallRep) super.getRepresentation();
+    }
+
     /**
      * Draws this Packet on the GUI.
      *
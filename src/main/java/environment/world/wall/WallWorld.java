@@ -12,6 +12,11 @@ import environment.World;
  */
 public class WallWorld extends World<Wall> {
 
+    /**
+     * The number of times a wall was put or removed, so that whatever is derived from the walls can be cached
+     */
+    private volatile long version;
+
     private final Logger logger = Logger.getLogger(WallWorld.class.getName());
 
     /**
@@ -30,6 +35,24 @@ public class WallWorld extends World<Wall> {
         return "WallWorld";
     }
 
+    /**
+     * Returns the version of the walls in this WallWorld, which changes every time a wall is put or removed.
+     *
+     * @return The number of changes to this WallWorld so far
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Places a given Wall at the given coordinates, or removes the wall there if it is null.
+     */
+    @Override
+    public void putItem(int x, int y, Wall item) {
+        super.putItem(x, y, item);
+        version++;
+    }
+
     /**
      * Adds Walls to this WallWorld.
      *
@@ -17,6 +17,7 @@ import environment.Environment;
 import environment.world.generator.PacketGenerator;
 import util.event.AgentActionEvent;
 import util.event.EnergyUpdateEvent;
+import util.event.MemoryUsageEvent;
 
 public class EventTracker {
 
@@ -32,6 +33,11 @@ public class EventTracker {
     private final List<AgentMove> historyMoves;
     // Cycle -> energy update
     private final List<EnergyUpdate> historyEnergy;
+    // Cycle -> size of a memory fragment of an agent
+    private final List<MemoryUsage> historyMemory;
+    // The largest memory of an agent reported so far
+    private long peakMemoryBytes;
+    private String peakMemoryAgent;
 
 
 
@@ -43,6 +49,7 @@ public class EventTracker {
         this.historyPackets = new ArrayList<>();
         this.historyMoves = new ArrayList<>();
         this.historyEnergy = new ArrayList<>();
+        this.historyMemory = new ArrayList<>();
 
         this.reset();
         
@@ -111,6 +118,26 @@ public class EventTracker {
     }
 
 
+    /**
+     * Add the given report of the size of the memory of an agent to the history of memory usage.
+     *
+     * @param event The event containing the size of every memory fragment of the agent.
+     */
+    @Subscribe
+    private void addMemoryEvent(MemoryUsageEvent event) {
+        int time = this.getEnvironment().getTime();
+        String agentName = event.getAgent().getName();
+
+        event.getUsage().forEach((key, bytes) -> this.historyMemory.add(new MemoryUsage(key, bytes, agentName, time)));
+
+        long total = event.getTotalBytes();
+        if (total > this.peakMemoryBytes) {
+            this.peakMemoryBytes = total;
+            this.peakMemoryAgent = agentName;
+        }
+    }
+
+
     public JSONObject getHistoryJSON() {
         JSONObject head = new JSONObject();
 
@@ -124,6 +151,10 @@ public class EventTracker {
         meta.put("EnergyConsumed", this.energySpent);
         meta.put("Environment", applicationRunner.getEnvFile());
         meta.put("Implementation", applicationRunner.getImplementation());
+        if (!this.historyMemory.isEmpty()) {
+            meta.put("PeakMemoryBytes", this.peakMemoryBytes);
+            meta.put("PeakMemoryAgent", this.peakMemoryAgent);
+        }
 
         JSONObject moves = new JSONObject();
         moves.put("Key", new JSONArray(new String[] {"Cycle", "AgentName", "FromX", "FromY", "ToX", "ToY"}));
@@ -163,12 +194,22 @@ public class EventTracker {
                 .collect(Collectors.toList())));
 
 
+        JSONObject memoryUsage = new JSONObject();
+        memoryUsage.put("Key", new JSONArray(new String[] {"Cycle", "AgentName", "Fragment", "Bytes"}));
+        memoryUsage.put("Data", new JSONArray(historyMemory.stream()
+                .map(MemoryUsage::toJSONArray)
+                .collect(Collectors.toList())));
+
+
         head.put("Meta", meta);
         head.put("Moves", moves);
         head.put("PacketPickups", packetPickup);
         head.put("PacketDeliveries", packetDelivery);
         head.put("PacketDrops", packetDrop);
         head.put("EnergyUpdates", energyUpdate);
+        if (!this.historyMemory.isEmpty()) {
+            head.put("MemoryUsage", memoryUsage);
+        }
 
         return head;
     }
@@ -193,6 +234,9 @@ public class EventTracker {
         this.historyMoves.clear();
         this.historyPackets.clear();
         this.historyEnergy.clear();
+        this.historyMemory.clear();
+        this.peakMemoryBytes = 0;
+        this.peakMemoryAgent = null;
         this.totalPackets = getEnvironment().getPacketWorld().getNbPackets()
                 + getEnvironment().getPacketGeneratorWorld().getItemsFlat().stream()
                         .mapToInt(PacketGenerator::getPacketsLeftToGenerate)
@@ -290,4 +334,25 @@ public class EventTracker {
             return new JSONArray(new Object[] {this.cycle, this.agentName, this.isIncreased ? ">=" : "<", this.percentage});
         }
     }
+
+    private static class MemoryUsage extends ActionUpdate {
+        final String fragment;
+        final int bytes;
+
+        MemoryUsage(String fragment, int bytes, String agentName, int cycle) {
+            this.agentName = agentName;
+            this.cycle = cycle;
+            this.fragment = fragment;
+            this.bytes = bytes;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Memory fragment %s takes %d bytes", this.fragment, this.bytes);
+        }
+
+        public JSONArray toJSONArray() {
+            return new JSONArray(new Object[] {this.cycle, this.agentName, this.fragment, this.bytes});
+        }
+    }
 }
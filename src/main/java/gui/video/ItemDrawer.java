@@ -198,7 +198,7 @@ public class ItemDrawer extends Drawer {
         g2d.setStroke(oldStroke);
 
 
-        if (EnergyValues.ENERGY_ENABLED) {
+        if (agent.getEnvironment().isEnergyEnabled()) {
 
             var startBattery = new Pair<>(hr + (9 * cellWidth / 15), vr + (12 * cellWidth / 15));
             var endBattery = new Pair<>(hr + (14 * cellWidth / 15), vr + (14 * cellWidth / 15));
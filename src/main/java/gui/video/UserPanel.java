@@ -12,6 +12,7 @@ import javax.swing.JButton;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JSlider;
+import javax.swing.Timer;
 import javax.swing.plaf.InsetsUIResource;
 
 import com.google.common.eventbus.Subscribe;
@@ -20,7 +21,9 @@ import environment.ApplicationRunner;
 import environment.EnergyValues;
 import gui.setup.GUISetup;
 import util.event.AgentActionEvent;
+import util.event.GameOverEvent;
 import util.event.MsgSentEvent;
+import util.event.RunAbortedEvent;
 import util.event.WorldProcessedEvent;
 
 
@@ -31,6 +34,7 @@ public class UserPanel extends JPanel {
     final JLabel messagesLabel;
     final JLabel deliveredLabel;
     final JLabel cyclesLabel;
+    final JLabel tickRateLabel;
 
     int score = 0;
     int messages = 0;
@@ -44,6 +48,12 @@ public class UserPanel extends JPanel {
     final JSlider playSpeed;
 
     final GUISetup guiSetup;
+    final ApplicationRunner applicationRunner;
+
+    /**
+     * Refreshes the labels at VideoPanel.FRAME_RATE while the simulation plays.
+     */
+    final Timer refreshTimer;
 
     boolean agentsStarted = false;
 
@@ -51,7 +61,8 @@ public class UserPanel extends JPanel {
     
     public UserPanel(GUISetup guiSetup, VideoPanel videoPanel) {
         this.guiSetup = guiSetup;
-        ApplicationRunner applicationRunner = guiSetup.getApplicationRunner();
+        this.applicationRunner = guiSetup.getApplicationRunner();
+        this.refreshTimer = new Timer(1000 / VideoPanel.FRAME_RATE, e -> this.repaint());
 
         setLayout(new BorderLayout());
         add(new JLabel(), "North");
@@ -73,6 +84,8 @@ public class UserPanel extends JPanel {
 
         cyclesLabel = new JLabel(" Cycles = " + nbCycles);
         gridBag.setConstraints(cyclesLabel, c);
+        tickRateLabel = new JLabel("Cycles/s = 0");
+        gridBag.setConstraints(tickRateLabel, c);
         
         c.gridwidth = GridBagConstraints.REMAINDER;
         var speedLabel = new JLabel("Simulation speed");
@@ -83,6 +96,7 @@ public class UserPanel extends JPanel {
         buttonPanel.add(messagesLabel);
         buttonPanel.add(deliveredLabel);
         buttonPanel.add(cyclesLabel);
+        buttonPanel.add(tickRateLabel);
         buttonPanel.add(speedLabel); // For spacing
 
 
@@ -133,6 +147,9 @@ public class UserPanel extends JPanel {
                 applicationRunner.prepareActiveItems();
             }
             applicationRunner.play();
+            if (!applicationRunner.isStopped()) {
+                refreshTimer.start();
+            }
             this.playButton.setEnabled(false);
             this.stepButton.setEnabled(false);
             this.restartButton.setEnabled(true);
@@ -141,6 +158,7 @@ public class UserPanel extends JPanel {
 
         pauseButton.addActionListener(ev -> {
             applicationRunner.setPaused();
+            refreshTimer.stop();
             this.playButton.setEnabled(true);
             this.stepButton.setEnabled(true);
             this.pauseButton.setEnabled(false);
@@ -173,7 +191,7 @@ public class UserPanel extends JPanel {
         playSpeed.setPaintTicks(true);
         playSpeed.setSnapToTicks(true);
         Dictionary<Integer, JLabel> ticks = new Hashtable<>();
-        ticks.put(0, new JLabel("Fast"));
+        ticks.put(0, new JLabel("Unlimited"));
         ticks.put(2000, new JLabel("Slow"));
         playSpeed.setLabelTable(ticks);
         playSpeed.setPaintLabels(true);
@@ -202,21 +220,35 @@ public class UserPanel extends JPanel {
         if (event.getAction() == AgentActionEvent.DELIVER_PACKET) {
             delivered++;
         }
-
-        this.repaint();
     }
 
 
     @Subscribe
     public void handleMsgSentEvent(MsgSentEvent event) {
         messages++;
-        this.repaint();
     }
 
 
     @Subscribe
     void handleWorldProcessedEvent(WorldProcessedEvent e) {
         nbCycles++;
+        // A single step does not start the timer
+        if (!refreshTimer.isRunning()) {
+            this.repaint();
+        }
+    }
+
+
+    @Subscribe
+    void handleGameOverEvent(GameOverEvent e) {
+        refreshTimer.stop();
+        this.repaint();
+    }
+
+
+    @Subscribe
+    void handleRunAbortedEvent(RunAbortedEvent e) {
+        refreshTimer.stop();
         this.repaint();
     }
 
@@ -229,6 +261,7 @@ public class UserPanel extends JPanel {
             messagesLabel.setText("Messages = " + messages);
             deliveredLabel.setText("Packets delivered = " + delivered);
             cyclesLabel.setText(" Cycles = " + nbCycles);
+            tickRateLabel.setText(String.format("Cycles/s = %.0f", applicationRunner.getTickRate()));
         }
     }
 
@@ -239,6 +272,7 @@ public class UserPanel extends JPanel {
         this.delivered = 0;
         this.nbCycles = 0;
 
+        refreshTimer.stop();
         this.repaint();
     }
 }
@@ -7,6 +7,7 @@ import java.util.logging.Logger;
 
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.Timer;
 
 import com.google.common.eventbus.Subscribe;
 
@@ -18,6 +19,8 @@ import environment.world.destination.Destination;
 import environment.world.energystation.EnergyStationWorld;
 import environment.world.packet.Packet;
 import environment.world.pheromone.PheromoneWorld;
+import util.event.GameOverEvent;
+import util.event.RunAbortedEvent;
 import util.event.WorldProcessedEvent;
 
 
@@ -26,8 +29,20 @@ import util.event.WorldProcessedEvent;
  */
 public class VideoPanel extends JPanel {
 
+    /**
+     * The number of times per second the panels sample the state of the simulation
+     */
+    public static final int FRAME_RATE = 30;
+
     private Environment env;
     boolean started;
+    private volatile boolean worldChanged;
+
+    /**
+     * Samples the state of the simulation at FRAME_RATE. It runs from the moment an environment is set until the
+     * run ends or the panel is removed from its window.
+     */
+    private final Timer frameTimer;
 
     /**
      * Visitor for the drawing of items.
@@ -43,6 +58,14 @@ public class VideoPanel extends JPanel {
 
     public VideoPanel() {
         drawer = new ItemDrawer();
+
+        // Render at our own pace rather than on every tick, so fast simulations are not held up by painting
+        frameTimer = new Timer(1000 / FRAME_RATE, e -> {
+            if (worldChanged) {
+                worldChanged = false;
+                repaint();
+            }
+        });
     }
 
     //--------------------------------------------------------------------------
@@ -56,7 +79,32 @@ public class VideoPanel extends JPanel {
 
     @Subscribe
     private void handleWorldProcessedEvent(WorldProcessedEvent event) {
-        this.repaint();
+        this.worldChanged = true;
+    }
+
+    @Subscribe
+    private void handleGameOverEvent(GameOverEvent event) {
+        stopRendering();
+    }
+
+    @Subscribe
+    private void handleRunAbortedEvent(RunAbortedEvent event) {
+        stopRendering();
+    }
+
+    /**
+     * Stops sampling the simulation, after painting its last state.
+     */
+    private void stopRendering() {
+        frameTimer.stop();
+        worldChanged = false;
+        repaint();
+    }
+
+    @Override
+    public void removeNotify() {
+        frameTimer.stop();
+        super.removeNotify();
     }
 
     public void warning(String message) {
@@ -78,14 +126,14 @@ public class VideoPanel extends JPanel {
                 //Draw Pheromones (those which fill the whole area),
                 Environment env = getEnvironment();
 
-                drawItems(env.getPheromoneWorld().getItemsCopied());
-                drawItems(env.getEnergyStationWorld().getItemsCopied());
+                drawItems(env.getPheromoneWorld().getItemsFlat());
+                drawItems(env.getEnergyStationWorld().getItemsFlat());
 
                 Collection<World<?>> worlds = env.getWorlds();
                 for (World<?> world : worlds) {
                     if (!(world instanceof PheromoneWorld ||
                             world instanceof EnergyStationWorld)) {
-                        drawItems(world.getItemsCopied());
+                        drawItems(world.getItemsFlat());
                     }
                 }
             } catch (NullPointerException exc) {
@@ -100,13 +148,9 @@ public class VideoPanel extends JPanel {
         repaint();
     }
 
-    private <T extends Item<?>> void drawItems(List<List<T>> items) {
-        for (int i = 0; i < getEnvironment().getWidth(); i++) {
-            for (int j = 0; j < getEnvironment().getHeight(); j++) {
-                if (items.get(i).get(j) != null) {
-                    items.get(i).get(j).draw(getDrawer());
-                }
-            }
+    private <T extends Item<?>> void drawItems(List<T> items) {
+        for (T item : items) {
+            item.draw(getDrawer());
         }
     }
 
@@ -169,6 +213,11 @@ public class VideoPanel extends JPanel {
     public void setEnvironment(Environment environ) {
         this.env = environ;
         this.drawer.setEnvironment(environ);
+        if (environ != null) {
+            frameTimer.restart();
+        } else {
+            frameTimer.stop();
+        }
     }
 
     public Environment getEnvironment() {
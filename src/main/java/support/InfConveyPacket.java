@@ -1,6 +1,9 @@
 package support;
 
+import java.util.List;
+
 import environment.ActiveItemID;
+import environment.Coordinate;
 import environment.Environment;
 import environment.world.conveyor.Conveyor;
 import environment.world.packet.Packet;
@@ -23,6 +26,11 @@ public class InfConveyPacket extends Influence {
         return getEnvironment().getPacketWorld();
     }
 
+    @Override
+    public List<Coordinate> getAffectedCells() {
+        return List.of(new Coordinate(conveyor.getX(), conveyor.getY()), new Coordinate(getX(), getY()));
+    }
+
 
     @Override
     public AgentActionEvent effectuateEvent () {
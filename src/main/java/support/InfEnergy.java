@@ -1,6 +1,9 @@
 package support;
 
+import java.util.List;
+
 import environment.ActiveItemID;
+import environment.Coordinate;
 import environment.Environment;
 import environment.world.agent.AgentWorld;
 import util.event.AgentActionEvent;
@@ -40,18 +43,13 @@ public class InfEnergy extends Influence {
     }
 
     @Override
-    public AgentActionEvent effectuateEvent() {
-        return loadEnergy(getX(), getY(), getLoadAmount());
+    public List<Coordinate> getAffectedCells() {
+        return List.of(new Coordinate(getX(), getY()));
     }
-    protected synchronized AgentActionEvent loadEnergy(int x, int y, int loadAmount) {
-        if (getAreaOfEffect().inBounds(x, y) && getAreaOfEffect().getItem(x, y) != null) {
-            AgentActionEvent event = new AgentActionEvent(this);
-            event.setAction(AgentActionEvent.LOAD_ENERGY);
-            event.setAgent(getAreaOfEffect().getAgent(getAreaOfEffect().getItem(x, y).getID()));
-            event.setValue(loadAmount);
-            return event;
-        }
-        return null;
+
+    @Override
+    public AgentActionEvent effectuateEvent() {
+        return getAreaOfEffect().loadEnergy(getX(), getY(), getLoadAmount());
     }
 
 
@@ -1,8 +1,10 @@
 package support;
 
 import java.awt.Color;
+import java.util.List;
 
 import environment.ActiveItemID;
+import environment.Coordinate;
 import environment.Environment;
 import environment.world.generator.PacketGeneratorWorld;
 import util.event.AgentActionEvent;
@@ -18,9 +20,15 @@ public class InfGeneratePacket extends Influence {
         return getEnvironment().getPacketGeneratorWorld();
     }
 
+    @Override
+    public List<Coordinate> getAffectedCells() {
+        return List.of(new Coordinate(getX(), getY()));
+    }
+
     @Override
     public AgentActionEvent effectuateEvent() {
         getAreaOfEffect().getItem(getX(), getY()).generatePacket();
+        getAreaOfEffect().touch(getX(), getY());
         if (getEnvironment().getPacketWorld().getItem(getX(), getY()) == null) {
             getEnvironment().getPacketWorld().placeItem(getAreaOfEffect().getItem(getX(), getY()).getFirstAvailablePacket());
         }
@@ -1,6 +1,9 @@
 package support;
 
+import java.util.List;
+
 import environment.ActiveItemID;
+import environment.Coordinate;
 import environment.Environment;
 import environment.world.agent.AgentWorld;
 import util.event.AgentActionEvent;
@@ -16,6 +19,11 @@ public class InfNOP extends Influence {
         return getEnvironment().getAgentWorld();
     }
 
+    @Override
+    public List<Coordinate> getAffectedCells() {
+        return List.of();
+    }
+
     @Override
     public AgentActionEvent effectuateEvent() {
         return idleEnergy(getID());
@@ -1,8 +1,10 @@
 package support;
 
 import java.awt.Color;
+import java.util.List;
 
 import environment.ActiveItemID;
+import environment.Coordinate;
 import environment.Environment;
 import environment.world.generator.PacketGeneratorWorld;
 import environment.world.packet.Packet;
@@ -30,6 +32,11 @@ public class InfPickGeneratorPacket extends Influence {
         return getEnvironment().getPacketGeneratorWorld();
     }
 
+    @Override
+    public List<Coordinate> getAffectedCells() {
+        return getAffectedCellsWithOrigin();
+    }
+
     @Override
     public AgentActionEvent effectuateEvent() {
         Packet packet = getAreaOfEffect().getItem(getX(), getY()).getFirstAvailablePacket();
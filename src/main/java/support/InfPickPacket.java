@@ -1,8 +1,10 @@
 package support;
 
 import java.awt.Color;
+import java.util.List;
 
 import environment.ActiveItemID;
+import environment.Coordinate;
 import environment.Environment;
 import environment.world.packet.Packet;
 import environment.world.packet.PacketWorld;
@@ -30,6 +32,11 @@ public class InfPickPacket extends Influence {
         return getEnvironment().getPacketWorld();
     }
 
+    @Override
+    public List<Coordinate> getAffectedCells() {
+        return getAffectedCellsWithOrigin();
+    }
+
     @Override
     public AgentActionEvent effectuateEvent() {
         return pickPacket(getX(), getY(), getID());
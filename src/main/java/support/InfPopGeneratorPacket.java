@@ -1,8 +1,10 @@
 package support;
 
 import java.awt.Color;
+import java.util.List;
 
 import environment.ActiveItemID;
+import environment.Coordinate;
 import environment.Environment;
 import environment.world.generator.PacketGeneratorWorld;
 import util.event.AgentActionEvent;
@@ -18,6 +20,11 @@ public class InfPopGeneratorPacket extends Influence {
         return this.getEnvironment().getPacketGeneratorWorld();
     }
 
+    @Override
+    public List<Coordinate> getAffectedCells() {
+        return List.of(new Coordinate(getX(), getY()));
+    }
+
     @Override
     public AgentActionEvent effectuateEvent() {
         if (this.getEnvironment().getPacketWorld().getItem(this.getX(), this.getY()) == null) {
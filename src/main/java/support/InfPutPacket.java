@@ -1,8 +1,10 @@
 package support;
 
 import java.awt.Color;
+import java.util.List;
 
 import environment.ActiveItemID;
+import environment.Coordinate;
 import environment.Environment;
 import environment.world.packet.Packet;
 import environment.world.packet.PacketWorld;
@@ -32,6 +34,11 @@ public class InfPutPacket extends Influence {
         return getEnvironment().getPacketWorld();
     }
 
+    @Override
+    public List<Coordinate> getAffectedCells() {
+        return getAffectedCellsWithOrigin();
+    }
+
     @Override
     public AgentActionEvent effectuateEvent() {
         return putPacket(getX(), getY(), getID());
@@ -1,8 +1,10 @@
 package support;
 
+import java.util.List;
 import java.util.logging.Logger;
 
 import environment.ActiveItemID;
+import environment.Coordinate;
 import environment.Environment;
 import environment.world.agent.Agent;
 import environment.world.packet.Packet;
@@ -33,6 +35,11 @@ public class InfStealPacket extends Influence {
         return getEnvironment().getPacketWorld();
     }
 
+    @Override
+    public List<Coordinate> getAffectedCells() {
+        return getAffectedCellsWithOrigin();
+    }
+
     @Override
     public AgentActionEvent effectuateEvent() {
         return stealPacket(getX(), getY(), getID());
@@ -1,6 +1,9 @@
 package support;
 
+import java.util.List;
+
 import environment.ActiveItemID;
+import environment.Coordinate;
 import environment.Environment;
 import environment.world.agent.AgentWorld;
 import util.event.AgentActionEvent;
@@ -27,6 +30,11 @@ public class InfStep extends Influence {
         return getEnvironment().getAgentWorld();
     }
 
+    @Override
+    public List<Coordinate> getAffectedCells() {
+        return getAffectedCellsWithOrigin();
+    }
+
     @Override
     public AgentActionEvent effectuateEvent() {
         return step(getX(), getY(), getID());
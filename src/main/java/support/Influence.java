@@ -1,10 +1,13 @@
 package support;
 
 import java.awt.Color;
+import java.util.List;
 
 import environment.ActiveItemID;
+import environment.Coordinate;
 import environment.Environment;
 import environment.World;
+import environment.world.agent.Agent;
 import util.event.AgentActionEvent;
 
 /**
@@ -87,13 +90,41 @@ public abstract class Influence {
      * effectuates the influence
      */
     public void effectuate() {
-        AgentActionEvent event = effectuateEvent();
+        postEvent(effectuateEvent());
+    }
+
+    public abstract AgentActionEvent effectuateEvent();
+
+    /**
+     * Posts an event produced by effectuateEvent() of this influence, if any
+     * @param event The event to post
+     */
+    public void postEvent(AgentActionEvent event) {
         if (event != null) {
             getAreaOfEffect().getEventBus().post(event);
         }
     }
 
-    public abstract AgentActionEvent effectuateEvent();
+    /**
+     * Gets the cells this influence reads or writes while it is validated and effectuated.
+     * Influences with disjoint cells can be processed independently of each other.
+     * @return The affected cells, or null if this influence may affect anything in the environment
+     */
+    public List<Coordinate> getAffectedCells() {
+        return null;
+    }
+
+    /**
+     * Gets the cell of the agent this influence originates from together with the cell of this influence
+     * @return Both cells, or null if this influence does not originate from an agent
+     */
+    protected List<Coordinate> getAffectedCellsWithOrigin() {
+        Agent agent = getEnvironment().getAgentWorld().getAgent(getID());
+        if (agent == null) {
+            return null;
+        }
+        return List.of(new Coordinate(agent.getX(), agent.getY()), new Coordinate(getX(), getY()));
+    }
 
     public int getPriority() {
         return ID.getActionPriority().getPriority();
@@ -61,6 +61,7 @@ public class CentralSynchronizer implements Synchronizer {
      * 
      * @param agent The id of the agent requesting formation of its sync set.
      * @param setOfCandidates The set of agent-id's that are candidate-members of the sync set to be formed.
+     *                        It may contain agent itself, which is skipped.
      * @param time The syncTime of the requesting agent.
      * @post  new getSyncSet(agent)==getSyncSet(agent)
      */
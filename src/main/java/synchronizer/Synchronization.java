@@ -70,6 +70,7 @@ public abstract class Synchronization {
      * syncTime time.
      * @param id The id of the agent requesting formation of its sync set.
      * @param setOfCandidates The set of agent-id's that are candidate-members of the sync set to be formed.
+     *                        It may contain id itself, which is skipped.
      * @param time The syncTime of the requesting agent.
      */
 
@@ -12,6 +12,10 @@ public interface Synchronizer {
 
     ActiveItemID[] getSyncSet(ActiveItemID id);
 
+    /**
+     * Forms the sync set of the agent with the given id. The candidates may contain agent_id itself, which is
+     * skipped. The list is shared and must not be modified.
+     */
     void synchronize(ActiveItemID agent_id, List<ActiveItemID> setOfCandidates, int time);
 
 }
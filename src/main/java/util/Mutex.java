@@ -28,6 +28,20 @@ public class Mutex {
         lockTaken = true;
     }
 
+    /**
+     * Takes the lock if it is free, without waiting for it.
+     *
+     * @return Whether the lock was taken
+     */
+    public synchronized boolean tryAcquireLock() {
+        if (lockTaken) {
+            return false;
+        }
+        this.logger.fine("Acquiring lock " + this);
+        lockTaken = true;
+        return true;
+    }
+
     public synchronized void releaseLock() {
         lockTaken = false;
         this.logger.fine("Releasing lock " + this);
@@ -1,11 +1,11 @@
 package util.assignments.general;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Optional;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 
 import agent.AgentCommunication;
 import agent.AgentState;
@@ -14,7 +14,7 @@ import environment.Mail;
 import environment.Perception;
 import environment.world.agent.AgentRep;
 import util.Message;
-import util.assignments.jackson.JacksonUtils;
+import util.assignments.jackson.JacksonCodecs;
 
 /**
  * A class that implements functions regarding the communication of the agent
@@ -42,24 +42,18 @@ public class CommunicationUtils {
             HashMap<String, T> result = new HashMap<>();
 
             // Loop over all the received mails
-            ObjectMapper objectMapper = JacksonUtils.buildObjectMapper();
             for(int i = 0; i < mails.size(); i++) {
                 // Get the mail
                 Mail mail = mails.get(i);
 
-                // Get the message
-                String messageString = mail.getMessage();
-                String sender = mail.getFrom();
-                Message message = objectMapper.readValue(messageString, Message.class);
-
                 // Guard clause to ensure the type corresponds
-                if(!message.getType().equals(memoryKey)) continue;
+                if(!memoryKey.equals(getType(mail))) continue;
 
                 // Remove the message from the mails
                 agentCommunication.removeMessage(i);
 
                 // Transform the message and return
-                result.put(sender, objectMapper.readValue(message.getMessage(), objectClass));
+                result.put(mail.getFrom(), readContent(mail, JacksonCodecs.readerFor(objectClass)));
 
                 return result;
             }
@@ -88,7 +82,6 @@ public class CommunicationUtils {
             ArrayList<Mail> mails = new ArrayList<>(agentCommunication.getMessages());
 
             // Loop over all the received mails
-            ObjectMapper objectMapper = JacksonUtils.buildObjectMapper();
             ArrayList<T> result = new ArrayList<>();
 
             for(int i = 0; i < mails.size(); i++) {
@@ -98,14 +91,10 @@ public class CommunicationUtils {
                 // Check if the mails is one of its own and continue with the next mail is so
                 if(agentState.getName().equals(mail.getFrom())) continue;
 
-                // Get the message
-                String messageString = mail.getMessage();
-                Message message = objectMapper.readValue(messageString, Message.class);
-
                 // Check if type corresponds
-                if(message.getType().equals(memoryKey)) {
+                if(memoryKey.equals(getType(mail))) {
                     // Transform the message and return
-                    result = objectMapper.readValue(message.getMessage(), objectMapper.getTypeFactory().constructCollectionType(ArrayList.class, objectClass));
+                    result = readContent(mail, JacksonCodecs.listReaderFor(objectClass));
 
                     // Remove the message from the mails
                     agentCommunication.removeMessage(i);
@@ -125,6 +114,15 @@ public class CommunicationUtils {
     // SEND //
     //////////
 
+    /**
+     * A function that is used to send memory fragments to the agents in the perception.
+     * Each agent is only sent what changed in the memory fragment since it was last sent to it,
+     * in an envelope with the version of the memory fragment.
+     *
+     * @param agentState The current state of the agent
+     * @param agentCommunication The interface for communication
+     * @param memoryKey The key to find the memory fragment
+     */
     public static void sendMemoryFragment(AgentState agentState, AgentCommunication agentCommunication, String memoryKey) {
 
         // Check if memoryKey exists
@@ -133,38 +131,17 @@ public class CommunicationUtils {
         // Get the perception of the agent
         Perception agentPerception = agentState.getPerception();
 
-        // Get the position of the agent
-        int agentX = agentState.getX();
-        int agentY = agentState.getY();
-
-        // Get the memory fragment in JSON string
-        String memoryFragmentString = agentState.getMemoryFragment(memoryKey);
-
-        // Loop over the whole perception
-        for (int x = 0; x < agentPerception.getWidth(); x++) {
-            for (int y = 0; y < agentPerception.getHeight(); y++) {
-                // Get the perception of the cell
-                CellPerception cellPerception = agentPerception.getCellAt(x, y);
-
-                // Check if the cell is null and continue with the next cell if so
-                if (cellPerception == null) continue;
-
-                // Get the agent representation of the cell
-                Optional<AgentRep> agentRep = cellPerception.getAgentRepresentation();
-
-                // Check if there is no agent on the cell and continue with the next cell if so
-                if (agentRep.isEmpty()) continue;
-
-                // Check if the position of the agent corresponds to the agent's own position and continue with the next cell if so
-                if (agentRep.get().getX() == agentX && agentRep.get().getY() == agentY) continue;
+        // Loop over the other agents in the perception
+        for (AgentRep agentRep : agentPerception.getVisibleAgents()) {
+            // Get what changed in the memory fragment since it was last sent to the agent, in JSON string
+            String memoryFragmentString = agentState.getMemoryFragmentChanges(memoryKey, agentRep.getName());
 
-                // Create a message string
-                String messageString = makeMessageString(memoryFragmentString, memoryKey);
+            // Check if anything changed and continue with the next agent if not
+            if (memoryFragmentString == null) continue;
 
-                // Communicate the message to the agent
-                agentCommunication.sendMessage(agentRep.get(), messageString);
-            }
-        } 
+            // Communicate the changes to the agent
+            agentCommunication.sendMessage(agentRep, memoryKey, agentState.getMemoryFragmentVersion(memoryKey), toPayload(memoryFragmentString));
+        }
     }
 
 
@@ -186,11 +163,8 @@ public class CommunicationUtils {
         // Check if the memory fragment is null and return if so
         if (memoryFragmentString == null) return;
 
-        // Create a message string
-        String messageString = makeMessageString(memoryFragmentString, memoryKey);
-
-        // Broadcast the message
-        agentCommunication.broadcastMessage(messageString);
+        // Broadcast the memory fragment
+        agentCommunication.broadcastMessage(memoryKey, agentState.getMemoryFragmentVersion(memoryKey), toPayload(memoryFragmentString));
     }
 
     ///////////
@@ -198,22 +172,38 @@ public class CommunicationUtils {
     ///////////
 
     /**
-     * A function that makes a message string.
+     * A function that makes the payload of an envelope from a JSON string.
      *
-     * @param memoryFragmentString The memory fragment as a string
-     * @param memoryKey The memory key
-     * @return The string that can be sent
+     * @param json The JSON string, e.g. a memory fragment
+     * @return The payload that can be sent
      */
-    private static String makeMessageString(String memoryFragmentString, String memoryKey) {
-        try {
-            // Define a message, transform it to a JSON and return it
-            ObjectMapper objectMapper = JacksonUtils.buildObjectMapper();
-            Message message = new Message(memoryFragmentString, memoryKey);
-            return objectMapper.writeValueAsString(message);
-        } catch (IOException e) {
-            e.printStackTrace();
-            return "";
-        }
+    private static byte[] toPayload(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A function that gets the type of a mail. Legacy string mails hold a Message in JSON, whose type is read.
+     *
+     * @param mail The mail
+     * @return The type of the mail
+     */
+    private static String getType(Mail mail) throws IOException {
+        if (mail.hasEnvelope()) return mail.getEnvelope().getType();
+        return JacksonCodecs.read(mail.getMessage(), Message.class).getType();
+    }
+
+    /**
+     * A function that reads the content of a mail. The payload of an envelope is read as it is,
+     * legacy string mails hold a Message in JSON whose message is read.
+     *
+     * @param <T> The type of the content
+     * @param mail The mail
+     * @param reader The reader of the content
+     * @return The content
+     */
+    private static <T> T readContent(Mail mail, ObjectReader reader) throws IOException {
+        if (mail.hasEnvelope()) return reader.readValue(mail.getEnvelope().getPayload());
+        return reader.readValue(JacksonCodecs.read(mail.getMessage(), Message.class).getMessage());
     }
 
     /**
@@ -229,40 +219,26 @@ public class CommunicationUtils {
     public static boolean sendEmergencyMessage(AgentState agentState, AgentCommunication agentCommunication, String msg, String type) {
         Perception agentPerception = agentState.getPerception();
 
-        // Create a message string
-        String messageString = makeMessageString(msg, type);
+        // Create the payload
+        byte[] payload = toPayload(msg);
         boolean sent = false;
 
-        for (int x = 0; x <= agentPerception.getWidth(); x++) {
-            for (int y = 0; y <= agentPerception.getHeight(); y++) {
-                // Get the perception of the cell
-                CellPerception cellPerception = agentPerception.getCellAt(x, y);
-                CellPerception stationCellPerception = agentPerception.getCellAt(x, y + 1);
-
-                // Check if the cell is null and continue with the next cell if so
-                if (cellPerception == null) continue;
+        // Loop over the other agents in the perception
+        for (AgentRep agentRep : agentPerception.getVisibleAgents()) {
+            // Get the perception of the cell beneath the agent
+            CellPerception stationCellPerception = agentPerception.getCellPerceptionOnAbsPos(agentRep.getX(), agentRep.getY() + 1);
 
-                // Check if the cell beneath the cellPerception is null
-                if (stationCellPerception == null) continue;
+            // Check if the cell beneath the agent is null
+            if (stationCellPerception == null) continue;
 
-                // Get the agent representation of the cell
-                Optional<AgentRep> agentRep = cellPerception.getAgentRepresentation();
+            // Only send message to the agent on the charging station
+            if (!stationCellPerception.containsEnergyStation()) continue;
 
-                // Check if there is no agent on the cell and continue with the next cell if so
-                if (agentRep.isEmpty()) continue;
+            // Communicate the message to the agent
+            agentCommunication.sendMessage(agentRep, type, 0, payload);
 
-                // Only send message to the agent on the charging station
-                if (!stationCellPerception.containsEnergyStation()) continue;
-
-                // Check if the position of the agent corresponds to the agent's own position and continue with the next cell if so
-                if (agentRep.get().getX() == agentState.getX() && agentRep.get().getY() == agentState.getY()) continue;
-
-                // Communicate the message to the agent
-                agentCommunication.sendMessage(agentRep.get(), messageString);
-
-                // Update sent variable
-                sent = true;
-            }
+            // Update sent variable
+            sent = true;
         }
 
         return sent;
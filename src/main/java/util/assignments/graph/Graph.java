@@ -8,25 +8,28 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
-import com.fasterxml.jackson.annotation.JsonCreator;
-import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 
 import environment.Coordinate;
-import util.assignments.jackson.NodeDeserializer;
-import util.assignments.jackson.NodeSerializer;
+import util.assignments.jackson.GraphDeserializer;
+import util.assignments.jackson.GraphSerializer;
+import util.assignments.targets.Destination;
+import util.assignments.targets.Packet;
 import util.assignments.targets.Target;
 
 /**
  * A class represening a graph
+ * It is serialized in a compact form, see GraphSerializer
  */
+@JsonSerialize(using = GraphSerializer.class)
+@JsonDeserialize(using = GraphDeserializer.class)
 public class Graph {
 
     // A data member holding the map of the graph
-    @JsonSerialize(keyUsing = NodeSerializer.class)
-    @JsonDeserialize(keyUsing = NodeDeserializer.class)
     private Map<Node, List<Node>> map;
+    // A data member holding the latest update time of the nodes in the graph
+    private long latestUpdateTime;
 
     //////////////////
     // CONSTRUCTORS //
@@ -36,8 +39,7 @@ public class Graph {
         this.setMap(new HashMap<Node, List<Node>>());
     }
 
-    @JsonCreator
-    public Graph(@JsonProperty("map") Map<Node, List<Node>> map) {
+    public Graph(Map<Node, List<Node>> map) {
         this.setMap(map);
     }
 
@@ -51,6 +53,18 @@ public class Graph {
 
     public void setMap(Map<Node, List<Node>> map) {
         this.map = map;
+        this.latestUpdateTime = map.keySet().stream().mapToLong(Node::getUpdateTime).max().orElse(0);
+    }
+
+    /**
+     * Get an update time that is later than that of any node in the graph, and not earlier than the current time
+     * The nodes the agent observes itself get this time, so they always replace what the graph holds, also when
+     * the graph was updated within the same millisecond
+     *
+     * @return The update time for a new observation
+     */
+    public long nextUpdateTime() {
+        return Math.max(System.currentTimeMillis(), latestUpdateTime + 1);
     }
 
     /////////////
@@ -92,6 +106,7 @@ public class Graph {
         
         // Add the node to the map
         map.put(node, new LinkedList<Node>());
+        latestUpdateTime = Math.max(latestUpdateTime, node.getUpdateTime());
     }
 
     /**
@@ -124,6 +139,103 @@ public class Graph {
         }
     }
 
+    /**
+     * Apply a delta to the graph
+     * Copies of the nodes of the delta that are not in the graph are added and connected to their neighbours,
+     * the others take the target and update time of the node in the delta if it was updated later
+     * The delta itself is left as it is, so it can be kept and applied again, e.g. to fold a log of deltas
+     * 
+     * @param delta The delta, a graph of the nodes that changed
+     * @return A graph of copies of the nodes that were added or got another target, or null if there are none
+     */
+    public Graph patch(Graph delta) {
+        Graph change = new Graph();
+
+        // Create a list of new nodes
+        ArrayList<Node> newNodes = new ArrayList<>();
+
+        // Loop over the nodes of the delta
+        for(Node deltaNode: delta.getMap().keySet()) {
+            // Get the optional graph node
+            Optional<Node> graphNode = getNode(deltaNode.getCoordinate());
+
+            // Check if the graph node is present
+            if(graphNode.isPresent()) {
+                Node node = graphNode.get();
+
+                // Check if the node of the delta was updated later than the graph node
+                if(deltaNode.getUpdateTime() <= node.getUpdateTime()) {
+                    continue;
+                }
+                node.setUpdateTime(deltaNode.getUpdateTime());
+                latestUpdateTime = Math.max(latestUpdateTime, node.getUpdateTime());
+
+                // Check if the target changed
+                if(sameTarget(node.getTarget(), deltaNode.getTarget())) {
+                    continue;
+                }
+                node.setTarget(deltaNode.getTarget());
+                change.addNode(copy(node));
+
+                continue;
+            }
+
+            // Add a copy of the node of the delta to the graph
+            Node newNode = copy(deltaNode);
+            addNode(newNode);
+            newNodes.add(newNode);
+            change.addNode(copy(deltaNode));
+        }
+
+        // Loop over the new nodes
+        for(Node newNode: newNodes) {
+            // Loop over the neighbourhood
+            for (int i = -1; i <= 1; i++) {
+                for (int j = -1; j <= 1; j++) {
+                    // Check if i = 0 and j = 0
+                    if(i == 0 && j == 0) {
+                        continue;
+                    }
+
+                    // Get the optional graph node of the neighbour cell
+                    Coordinate neighbourCoordinate = new Coordinate(newNode.getCoordinate().getX() + i, newNode.getCoordinate().getY() + j);
+                    Optional<Node> graphNode = getNode(neighbourCoordinate);
+
+                    // Add an edge between the new node and the graph node (neighbour node)
+                    graphNode.ifPresent(node -> addEdge(newNode, node));
+                }
+            }
+        }
+
+        return change.getMap().isEmpty() ? null : change;
+    }
+
+    /**
+     * Copy a node without its search state
+     */
+    private static Node copy(Node node) {
+        return new Node(node.getCoordinate(), node.getTarget(), 0, 0, null, node.getUpdateTime());
+    }
+
+    /**
+     * Are two optional targets the same, of the same class on the same coordinate and with the same color?
+     */
+    private static boolean sameTarget(Optional<Target> target1, Optional<Target> target2) {
+        if(target1.isEmpty() || target2.isEmpty()) {
+            return target1.isEmpty() == target2.isEmpty();
+        }
+        if(!target1.get().getClass().equals(target2.get().getClass()) || !target1.get().equals(target2.get())) {
+            return false;
+        }
+        if(target1.get() instanceof Packet packet) {
+            return packet.getRgbColor() == ((Packet) target2.get()).getRgbColor();
+        }
+        if(target1.get() instanceof Destination destination) {
+            return destination.getRgbColor() == ((Destination) target2.get()).getRgbColor();
+        }
+        return true;
+    }
+
     ///////////////
     // OVERRIDES //
     ///////////////
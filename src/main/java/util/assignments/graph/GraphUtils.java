@@ -3,11 +3,11 @@ package util.assignments.graph;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.PriorityQueue;
 
 import agent.AgentState;
+import agent.MemoryKey;
 import environment.CellPerception;
 import environment.Coordinate;
 import environment.Perception;
@@ -23,6 +23,9 @@ public class GraphUtils {
 
     // A data member holding the cost for traversing over a packet in a computed path using A*
     private static final int PACKET_COST = 100;
+
+    // The key of the graph in memory, which is patched with the nodes that changed
+    public static final MemoryKey<Graph> GRAPH_KEY = MemoryKey.patchable(MemoryKeys.GRAPH, Graph.class, Graph::new, Graph::patch);
     
     ///////////
     // BUILD //
@@ -30,6 +33,7 @@ public class GraphUtils {
 
     /**
      * Build the graph based on the perception of the agent
+     * Only the perceived nodes are passed to the memory, which adds them to the graph and logs what changed
      * 
      * @param agentState The current state of the agent
      */
@@ -37,17 +41,12 @@ public class GraphUtils {
         // Get the perception the agent
         Perception agentPerception = agentState.getPerception();
 
-        // Get the graph
-        Graph graph = MemoryUtils.getObjectFromMemory(agentState, MemoryKeys.GRAPH, Graph.class);
-
-        // Check if the graph is null
-        if(graph == null) {
-            // Create a graph
-            graph = new Graph();
-        }
+        // Create a graph of the perceived nodes
+        Graph perceivedGraph = new Graph();
 
-        // Create a list of new nodes
-        ArrayList<Node> newNodes = new ArrayList<>();
+        // Get the update time of the perceived nodes, later than anything in the graph so the perception always wins
+        Graph graph = MemoryUtils.getObjectFromMemory(agentState, MemoryKeys.GRAPH, Graph.class);
+        long updateTime = graph == null ? System.currentTimeMillis() : graph.nextUpdateTime();
         
         // Loop over the perception
         for (int x = 0; x <= agentPerception.getWidth(); x++) {
@@ -70,28 +69,13 @@ public class GraphUtils {
                 int cellY = cellPerception.getY();
                 Coordinate cellCoordinate = new Coordinate(cellX, cellY);
 
-                // Get the optional graph node
-                Optional<Node> graphNode = graph.getNode(cellCoordinate);
-
                 // Get the optional target
                 Optional<Target> target = GeneralUtils.extractTarget(cellPerception);
 
-                // Check if the graph node is present
-                if(graphNode.isPresent()) {
-                    // Set the optional target
-                    graphNode.get().setTarget(target);
-                    graphNode.get().setUpdateTime(System.currentTimeMillis());
-                }
-                else {
-                    // Create a node
-                    Node cellNode = new Node(cellCoordinate, target);
-
-                    // Add the node to the graph
-                    graph.addNode(cellNode);
-
-                    // Add the node to the list of new nodes
-                    newNodes.add(cellNode);
-                }
+                // Add a node to the perceived graph
+                Node cellNode = new Node(cellCoordinate, target);
+                cellNode.setUpdateTime(updateTime);
+                perceivedGraph.addNode(cellNode);
 
                 // Check if the cell contains a charging station
                 if (cellPerception.containsEnergyStation())
@@ -100,112 +84,19 @@ public class GraphUtils {
             }
         }
 
-        // Loop over the new nodes
-        for(Node newNode: newNodes) {
-            // Loop over the neighbourhood
-            for (int i = -1; i <= 1; i++) {
-                for (int j = -1; j <= 1; j++) {
-                    // Check if i = 0 and j = 0
-                    if(i == 0 && j == 0) {
-                        continue;
-                    }
-
-                    // Get the coordinate of the neighbour cell
-                    int neighbourCellX = newNode.getCoordinate().getX() + i;
-                    int neighbourCellY = newNode.getCoordinate().getY() + j;
-                    Coordinate neighCoordinate = new Coordinate(neighbourCellX, neighbourCellY);
-
-                    // Get the optional graph node
-                    Optional<Node> graphNode = graph.getNode(neighCoordinate);
-
-                    // Check if the graph node is empty
-                    if(graphNode.isEmpty()) {
-                        continue;
-                    }
-
-                    // Add an edge between the new node and the graph node (neighbour node)
-                    graph.addEdge(newNode, graphNode.get());
-                }
-            }
-        }
-
         // Update the memory
-        MemoryUtils.updateMemory(agentState, Map.of(MemoryKeys.GRAPH, graph));
+        MemoryUtils.patchMemory(agentState, GRAPH_KEY, perceivedGraph);
     }
 
     /**
      * Update the graph based on another one
      * 
      * @param agentState The current state of the agent
+     * @param updatedGraph The other graph, or the part of it that changed
      */
     public static void update(AgentState agentState, Graph updatedGraph) {
-        // Get the current graph
-        Graph currentGraph = MemoryUtils.getObjectFromMemory(agentState, MemoryKeys.GRAPH, Graph.class);
-
-        // Check if the current graph is null
-        if(currentGraph == null) {
-            // Create a graph
-            currentGraph = new Graph();
-        }
-
-        // Create a list of new nodes
-        ArrayList<Node> newNodes = new ArrayList<>();
-
-        // Loop over the updated graph
-        for(Node updatedNode: updatedGraph.getMap().keySet()) {
-            // Get the optional graph node
-            Optional<Node> graphNode = currentGraph.getNode(updatedNode.getCoordinate());
-
-            // Check if the graph node is present
-            if(graphNode.isPresent()) {
-                // Check if the update time of the updated node is larger than the update time of the graph node
-                if(updatedNode.getUpdateTime() > graphNode.get().getUpdateTime()) {
-                    // Set the target
-                    graphNode.get().setTarget(updatedNode.getTarget());
-                }
-
-                continue;
-            }
-
-
-            // Add the updated node to the current graph
-            currentGraph.addNode(updatedNode);
-
-            // Add the updated node to the list of new nodes
-            newNodes.add(updatedNode);
-        }
-
-        // Loop over the new nodes
-        for(Node newNode: newNodes) {
-            // Loop over the neighbourhood
-            for (int i = -1; i <= 1; i++) {
-                for (int j = -1; j <= 1; j++) {
-                    // Check if i = 0 and j = 0
-                    if(i == 0 && j == 0) {
-                        continue;
-                    }
-
-                    // Get the coordinate of the neighbour cell
-                    int neighbourCellX = newNode.getCoordinate().getX() + i;
-                    int neighbourCellY = newNode.getCoordinate().getY() + j;
-                    Coordinate neighCoordinate = new Coordinate(neighbourCellX, neighbourCellY);
-
-                    // Get the optional graph node
-                    Optional<Node> graphNode = currentGraph.getNode(neighCoordinate);
-
-                    // Check if the graph node is empty
-                    if(graphNode.isEmpty()) {
-                        continue;
-                    }
-
-                    // Add an edge between the new node and the current graph node (neighbour node)
-                    currentGraph.addEdge(newNode, graphNode.get());
-                }
-            }
-        }
-
         // Update the memory
-        MemoryUtils.updateMemory(agentState, Map.of(MemoryKeys.GRAPH, currentGraph));
+        MemoryUtils.patchMemory(agentState, GRAPH_KEY, updatedGraph);
     }
 
     ////////////
@@ -11,7 +11,7 @@ import util.assignments.targets.Target;
 /**
  * A class representing a node
  */
-@JsonIgnoreProperties(value={"walkable", "fcost"})
+@JsonIgnoreProperties(value={"walkable", "fcost", "parent"})
 public class Node implements Comparable<Node> {
 
     // A data member holding the coordinate of the node
@@ -0,0 +1,113 @@
+package util.assignments.jackson;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+
+import environment.Coordinate;
+import util.assignments.graph.Graph;
+import util.assignments.graph.Node;
+import util.assignments.targets.Target;
+
+/**
+ * A class that implements a function to deserialize a Graph class
+ *
+ * Reads the format written by GraphSerializer and connects every node to the nodes on its 8
+ * neighbouring coordinates, like GraphUtils does when it adds nodes to a graph.
+ */
+public class GraphDeserializer extends JsonDeserializer<Graph> {
+
+    @Override
+    public Graph deserialize(JsonParser jsonParser, DeserializationContext ctxt) throws IOException {
+        long[] xs = new long[0];
+        long[] ys = new long[0];
+        long[] updated = new long[0];
+        long[] targetNodes = new long[0];
+        long time = 0;
+        List<Target> targets = new ArrayList<>();
+
+        if (jsonParser.currentToken() == JsonToken.START_OBJECT) {
+            jsonParser.nextToken();
+        }
+        for (; jsonParser.currentToken() == JsonToken.FIELD_NAME; jsonParser.nextToken()) {
+            String field = jsonParser.getCurrentName();
+            jsonParser.nextToken();
+            switch (field) {
+                case "x" -> xs = readNumbers(jsonParser, ctxt);
+                case "y" -> ys = readNumbers(jsonParser, ctxt);
+                case "time" -> time = jsonParser.getLongValue();
+                case "updated" -> updated = readNumbers(jsonParser, ctxt);
+                case "targetNodes" -> targetNodes = readNumbers(jsonParser, ctxt);
+                case "targets" -> {
+                    while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
+                        targets.add(ctxt.readValue(jsonParser, Target.class));
+                    }
+                }
+                default -> jsonParser.skipChildren();
+            }
+        }
+        if (xs.length != ys.length || xs.length != updated.length || targetNodes.length != targets.size()) {
+            return ctxt.reportInputMismatch(Graph.class, "Inconsistent lengths in serialized graph");
+        }
+
+        // Make the nodes
+        Node[] nodes = new Node[xs.length];
+        Map<Coordinate, Node> nodesByCoordinate = new HashMap<>(xs.length * 2);
+        for (int i = 0; i < nodes.length; i++) {
+            Coordinate coordinate = new Coordinate((int) xs[i], (int) ys[i]);
+            nodes[i] = new Node(coordinate, Optional.empty(), 0, 0, null, time + updated[i]);
+            nodesByCoordinate.put(coordinate, nodes[i]);
+        }
+        for (int j = 0; j < targetNodes.length; j++) {
+            nodes[(int) targetNodes[j]].setTarget(Optional.of(targets.get(j)));
+        }
+
+        // Connect every node to its neighbours
+        Map<Node, List<Node>> map = new HashMap<>(nodes.length * 2);
+        for (Node node : nodes) {
+            List<Node> neighbours = new LinkedList<>();
+            for (int i = -1; i <= 1; i++) {
+                for (int j = -1; j <= 1; j++) {
+                    if (i == 0 && j == 0) {
+                        continue;
+                    }
+                    Node neighbour = nodesByCoordinate.get(new Coordinate(node.getCoordinate().getX() + i, node.getCoordinate().getY() + j));
+                    if (neighbour != null) {
+                        neighbours.add(neighbour);
+                    }
+                }
+            }
+            map.put(node, neighbours);
+        }
+
+        return new Graph(map);
+    }
+
+    /**
+     * Read an array of numbers, the parser being at its start
+     */
+    private static long[] readNumbers(JsonParser jsonParser, DeserializationContext ctxt) throws IOException {
+        if (jsonParser.currentToken() != JsonToken.START_ARRAY) {
+            return ctxt.reportInputMismatch(long[].class, "Expected an array of numbers");
+        }
+        long[] numbers = new long[16];
+        int size = 0;
+        while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
+            if (size == numbers.length) {
+                numbers = Arrays.copyOf(numbers, size * 2);
+            }
+            numbers[size++] = jsonParser.getLongValue();
+        }
+        return Arrays.copyOf(numbers, size);
+    }
+}
@@ -0,0 +1,81 @@
+package util.assignments.jackson;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import util.assignments.graph.Graph;
+import util.assignments.graph.Node;
+import util.assignments.targets.Target;
+
+/**
+ * A class that implements a function to serialize a Graph class
+ *
+ * Only the nodes are written, as a list of coordinates with their update times and a table of the
+ * nodes that hold a target. The edges are left out: every node is connected to the nodes on its
+ * 8 neighbouring coordinates, so they are restored from the coordinates (see GraphDeserializer).
+ * The search state of the nodes (costs and parent) is left out as well.
+ *
+ * {"x":[...],"y":[...],"time":t,"updated":[...],"targetNodes":[...],"targets":[...]}
+ * where the update time of node i is time + updated[i], and targets[j] is the target of node targetNodes[j].
+ */
+public class GraphSerializer extends JsonSerializer<Graph> {
+
+    @Override
+    public void serialize(Graph graph, JsonGenerator jsonGenerator, SerializerProvider serializers) throws IOException {
+        List<Node> nodes = new ArrayList<>(graph.getMap().keySet());
+
+        long time = Long.MAX_VALUE;
+        for (Node node : nodes) {
+            time = Math.min(time, node.getUpdateTime());
+        }
+        if (nodes.isEmpty()) {
+            time = 0;
+        }
+
+        jsonGenerator.writeStartObject();
+
+        jsonGenerator.writeArrayFieldStart("x");
+        for (Node node : nodes) {
+            jsonGenerator.writeNumber(node.getCoordinate().getX());
+        }
+        jsonGenerator.writeEndArray();
+
+        jsonGenerator.writeArrayFieldStart("y");
+        for (Node node : nodes) {
+            jsonGenerator.writeNumber(node.getCoordinate().getY());
+        }
+        jsonGenerator.writeEndArray();
+
+        jsonGenerator.writeNumberField("time", time);
+        jsonGenerator.writeArrayFieldStart("updated");
+        for (Node node : nodes) {
+            jsonGenerator.writeNumber(node.getUpdateTime() - time);
+        }
+        jsonGenerator.writeEndArray();
+
+        jsonGenerator.writeArrayFieldStart("targetNodes");
+        for (int i = 0; i < nodes.size(); i++) {
+            if (nodes.get(i).containsTarget()) {
+                jsonGenerator.writeNumber(i);
+            }
+        }
+        jsonGenerator.writeEndArray();
+
+        // Targets are written as a Target, so their type is included
+        JsonSerializer<Object> targetSerializer = serializers.findTypedValueSerializer(Target.class, true, null);
+        jsonGenerator.writeArrayFieldStart("targets");
+        for (Node node : nodes) {
+            if (node.containsTarget()) {
+                targetSerializer.serialize(node.getTarget().get(), jsonGenerator, serializers);
+            }
+        }
+        jsonGenerator.writeEndArray();
+
+        jsonGenerator.writeEndObject();
+    }
+}
@@ -0,0 +1,123 @@
+package util.assignments.jackson;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import environment.Coordinate;
+import util.Message;
+import util.assignments.graph.Graph;
+import util.assignments.targets.ChargingStation;
+import util.assignments.task.Task;
+
+/**
+ * A class that provides the readers and writers of JSON shared by all agents
+ *
+ * All of them come from one object mapper, built once. Readers and writers are immutable, so they can be
+ * used from any number of threads at once, and are kept per type, so the serializers they need are only
+ * looked up once. Those of the types that are sent around most are made up front.
+ */
+public class JacksonCodecs {
+
+    // The object mapper all readers and writers are made from
+    private static final ObjectMapper MAPPER = JacksonUtils.buildObjectMapper();
+
+    // The readers of objects and of lists of objects, per class of the (elements of the) result
+    private static final Map<Class<?>, ObjectReader> READERS = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, ObjectReader> LIST_READERS = new ConcurrentHashMap<>();
+
+    // The writers, per class of the object to write
+    private static final Map<Class<?>, ObjectWriter> WRITERS = new ConcurrentHashMap<>();
+
+    static {
+        for (Class<?> type : List.of(Graph.class, Task.class, ChargingStation.class, Message.class, Coordinate.class)) {
+            readerFor(type);
+            writerFor(type);
+        }
+        listReaderFor(Task.class);
+        listReaderFor(ChargingStation.class);
+        writerFor(ArrayList.class);
+    }
+
+    private JacksonCodecs() {}
+
+    /////////////
+    // READERS //
+    /////////////
+
+    /**
+     * Get the reader of objects of a given class
+     *
+     * @param type The class of the objects
+     * @return The reader
+     */
+    public static ObjectReader readerFor(Class<?> type) {
+        return READERS.computeIfAbsent(type, MAPPER::readerFor);
+    }
+
+    /**
+     * Get the reader of lists of objects of a given class
+     *
+     * @param elementType The class of the objects in the lists
+     * @return The reader, which reads ArrayLists
+     */
+    public static ObjectReader listReaderFor(Class<?> elementType) {
+        return LIST_READERS.computeIfAbsent(elementType,
+            t -> MAPPER.readerFor(MAPPER.getTypeFactory().constructCollectionType(ArrayList.class, t)));
+    }
+
+    /**
+     * Read an object of a given class from a JSON string
+     *
+     * @param <T> The type of the object
+     * @param json The JSON string
+     * @param type The class of the object
+     * @return The object
+     */
+    public static <T> T read(String json, Class<T> type) throws IOException {
+        return readerFor(type).readValue(json);
+    }
+
+    /**
+     * Read a list of objects of a given class from a JSON string
+     *
+     * @param <T> The type of the objects in the list
+     * @param json The JSON string
+     * @param elementType The class of the objects in the list
+     * @return The list of objects
+     */
+    public static <T> ArrayList<T> readList(String json, Class<T> elementType) throws IOException {
+        return listReaderFor(elementType).readValue(json);
+    }
+
+    /////////////
+    // WRITERS //
+    /////////////
+
+    /**
+     * Get the writer of objects of a given class
+     *
+     * @param type The class of the objects
+     * @return The writer
+     */
+    public static ObjectWriter writerFor(Class<?> type) {
+        return WRITERS.computeIfAbsent(type, MAPPER::writerFor);
+    }
+
+    /**
+     * Write an object to a JSON string
+     *
+     * @param object The object, which is not null
+     * @return The JSON string
+     */
+    public static String write(Object object) throws JsonProcessingException {
+        return writerFor(object.getClass()).writeValueAsString(object);
+    }
+}
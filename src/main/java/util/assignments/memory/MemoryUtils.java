@@ -1,14 +1,10 @@
 package util.assignments.memory;
 
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Map;
-import java.util.Set;
-
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 import agent.AgentState;
-import util.assignments.jackson.JacksonUtils;
+import agent.MemoryKey;
 
 /**
  * A class that implements functions regarding the memory of the agent
@@ -29,24 +25,8 @@ public class MemoryUtils {
      * @return The object or null if no object was found
      */
     public static <T> T getObjectFromMemory(AgentState agentState, String memoryKey, Class<T> objectClass) {
-        // Get the memory
-        Set<String> memory = agentState.getMemoryFragmentKeys();
-
-        // Check if the memory contains the memory key
-        if(memory.contains(memoryKey)) {
-            // Get the memory fragment
-            String objectString = agentState.getMemoryFragment(memoryKey);
-
-            // Transform the JSON string to an object
-            ObjectMapper objectMapper = JacksonUtils.buildObjectMapper();
-            try {
-                return objectMapper.readValue(objectString, objectClass);
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-        }
-        
-        return null;
+        // Get the live object from memory
+        return agentState.getMemory(MemoryKey.of(memoryKey, objectClass));
     }
 
     /**
@@ -60,28 +40,16 @@ public class MemoryUtils {
      * @return The list of objects
      */
     public static <T> ArrayList<T> getListFromMemory(AgentState agentState, String memoryKey, Class<T> objectClass) {
-        // Get the memory
-        Set<String> memory = agentState.getMemoryFragmentKeys();
-
-        // Check if the memory contains the memory key
-        if(memory.contains(memoryKey)) {
-            // Get the memory fragment
-            String listString = agentState.getMemoryFragment(memoryKey);
-
-            // Transform the JSON string to a list
-            ObjectMapper objectMapper = JacksonUtils.buildObjectMapper();
-            try {
-                return objectMapper.readValue(listString, objectMapper.getTypeFactory().constructCollectionType(ArrayList.class, objectClass));
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-        }
+        // Get the live list from memory
+        MemoryKey<ArrayList<T>> key = MemoryKey.listOf(memoryKey, objectClass);
+        ArrayList<T> list = agentState.getMemory(key);
+        if(list != null) return list;
 
         // Initialize a new list
-        ArrayList<T> list = new ArrayList<>();
+        list = new ArrayList<>();
 
         // Update the memory
-        MemoryUtils.updateMemory(agentState, Map.of(memoryKey, list));
+        agentState.putMemory(key, list);
 
         // Return the initialized list
         return list;
@@ -93,31 +61,37 @@ public class MemoryUtils {
 
     /**
      * Update the memory
+     * The objects are stored as they are, they are only serialized when their memory fragment is sent
      * 
      * @param agentState The current state of the agent
      * @param updates A list of updates
      */
     public static void updateMemory(AgentState agentState, Map<String, Object> updates) {
-        // Get the memory
-        Set<String> memory = agentState.getMemoryFragmentKeys();
-
         // Loop over the updates
-        for(String memoryKey: updates.keySet()) {
-            // Check if the memory contains the memory key
-            if(memory.contains(memoryKey))
-                // Remove the fragment from the memory
-                agentState.removeMemoryFragment(memoryKey);
+        for(Map.Entry<String, Object> update: updates.entrySet()) {
+            // Add the fragment to the memory
+            putObject(agentState, update.getKey(), update.getValue());
+        }
+    }
 
-            try {
-                // Transform the object to a JSON string
-                ObjectMapper objectMapper = JacksonUtils.buildObjectMapper();
-                String objectString = objectMapper.writeValueAsString(updates.get(memoryKey));
+    /**
+     * Patch an object in memory with a delta
+     * Only what the delta changed is logged, so only that is sent to the agents the fragment was sent to before
+     * 
+     * @param <T> The type of the object
+     * @param agentState The current state of the agent
+     * @param memoryKey The patchable memory key
+     * @param delta The delta
+     */
+    public static <T> void patchMemory(AgentState agentState, MemoryKey<T> memoryKey, T delta) {
+        agentState.patchMemory(memoryKey, delta);
+    }
 
-                // Add the fragment to the memory
-                agentState.addMemoryFragment(memoryKey, objectString);
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-        }
+    /**
+     * Put an object in memory under a key of its own class
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> void putObject(AgentState agentState, String memoryKey, T object) {
+        agentState.putMemory(MemoryKey.of(memoryKey, (Class<T>) object.getClass()), object);
     }
-}
\ No newline at end of file
+}
@@ -34,6 +34,17 @@ public class Task {
         this.setConditions(new ArrayList<>());
     }
 
+    /**
+     * Copy constructor, for a task that can be changed without changing the given one
+     *
+     * @param task The task to copy
+     */
+    public Task(Task task) {
+        this(task.getPacket(), task.getDestination());
+        this.setHandled(task.isHandled());
+        this.setConditions(task.getConditions());
+    }
+
     @JsonCreator
     public Task(@JsonProperty("packet") Packet packet, @JsonProperty("destination") Destination destination, @JsonProperty("handled") boolean handled, @JsonProperty("conditions") ArrayList<Packet> conditions) {
         this.setPacket(packet);
@@ -100,8 +111,7 @@ public class Task {
         boolean result = false;
 
         if(object instanceof Task task) {
-            result = packet.equals(task.getPacket()) &&
-                    ((destination == null && task.getDestination() == null) || destination.equals(task.getDestination()));
+            result = packet.equals(task.getPacket()) && Objects.equals(destination, task.getDestination());
         }
 
         return result;
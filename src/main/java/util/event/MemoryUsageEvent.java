@@ -0,0 +1,58 @@
+package util.event;
+
+import java.util.Map;
+
+import environment.world.agent.Agent;
+
+/**
+ * An event thrown by an agent to report the size of its memory, in bytes per memory fragment.
+ */
+public class MemoryUsageEvent extends Event {
+
+    private Agent agent;
+    private Map<String, Integer> usage;
+    private long quota;
+
+
+    public MemoryUsageEvent(Object throwingObject) {
+        super(throwingObject);
+    }
+
+    public void setAgent(Agent agent) {
+        this.agent = agent;
+    }
+
+    public void setUsage(Map<String, Integer> usage) {
+        this.usage = usage;
+    }
+
+    public void setQuota(long quota) {
+        this.quota = quota;
+    }
+
+
+    public Agent getAgent() {
+        return this.agent;
+    }
+
+    /**
+     * Returns the size in bytes of every memory fragment of the agent, by key.
+     */
+    public Map<String, Integer> getUsage() {
+        return this.usage;
+    }
+
+    /**
+     * Returns the total size in bytes of the memory fragments of the agent.
+     */
+    public long getTotalBytes() {
+        return this.usage.values().stream().mapToLong(Integer::longValue).sum();
+    }
+
+    /**
+     * Returns the quota of the memory of the agent in bytes, or 0 if it has none.
+     */
+    public long getQuota() {
+        return this.quota;
+    }
+}
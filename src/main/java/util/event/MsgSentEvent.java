@@ -20,6 +20,10 @@ public class MsgSentEvent extends Event {
     }
 
     public boolean isQuestion() {
-        return msg.getMessage().charAt(7) == '?';
+        if (msg.hasEnvelope()) {
+            return false;
+        }
+        String message = msg.getMessage();
+        return message != null && message.length() > 7 && message.charAt(7) == '?';
     }
 }
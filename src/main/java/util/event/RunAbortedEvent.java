@@ -0,0 +1,25 @@
+package util.event;
+
+/**
+ * An event thrown when a run is aborted because the engine driving it failed.
+ */
+public class RunAbortedEvent extends Event {
+
+    private Throwable cause;
+
+
+    public RunAbortedEvent(Object throwingObject) {
+        super(throwingObject);
+    }
+
+    public void setCause(Throwable cause) {
+        this.cause = cause;
+    }
+
+    /**
+     * Returns the failure that aborted the run.
+     */
+    public Throwable getCause() {
+        return this.cause;
+    }
+}